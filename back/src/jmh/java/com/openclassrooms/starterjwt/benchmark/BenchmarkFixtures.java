@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * In-memory data and repository stubs, so benchmarks measure our code rather than a database or mocks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Session session(long id, int participants) {
+        List<User> users = new ArrayList<>(participants);
+        for (long userId = 1; userId <= participants; userId++) {
+            User user = new User();
+            user.setId(userId);
+            users.add(user);
+        }
+        return Session.builder()
+                .id(id)
+                .name("Session " + id)
+                .date(new Date())
+                .description("A relaxing yoga session for every level")
+                .teacher(Teacher.builder().id(1L).build())
+                .users(users)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    static SessionDto sessionDto(long id, int participants) {
+        List<Long> users = new ArrayList<>(participants);
+        for (long userId = 1; userId <= participants; userId++) {
+            users.add(userId);
+        }
+        return new SessionDto(id, "Session " + id, new Date(), 1L,
+                "A relaxing yoga session for every level", null, users, LocalDateTime.now(), LocalDateTime.now(), 0L);
+    }
+
+    /** Every user exists; getById returns a detached user instead of a Hibernate proxy. */
+    @SuppressWarnings("unchecked")
+    static UserRepository userRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findExistingIds":
+                            return new HashSet<>((Collection<Long>) args[0]);
+                        case "getById":
+                            User user = new User();
+                            user.setId((Long) args[0]);
+                            return user;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    static TeacherRepository teacherRepository() {
+        return (TeacherRepository) Proxy.newProxyInstance(TeacherRepository.class.getClassLoader(),
+                new Class<?>[]{TeacherRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "existsById":
+                            return true;
+                        case "getById":
+                            return Teacher.builder().id((Long) args[0]).build();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
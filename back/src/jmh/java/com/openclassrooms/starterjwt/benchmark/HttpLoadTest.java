@@ -0,0 +1,149 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against a running back end: each client sends an authenticated GET, waits
+ * for the response and sends the next one. Run it once per execution mode (platform threads, then
+ * {@code oc.app.virtualThreads.enabled=true}) against the same database to compare throughput.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec@load-test -Dload.clients=1000,5000 -Dload.seconds=30</pre>
+ *
+ * Arguments: base url, comma separated client counts, seconds per level, path, login email, password.
+ */
+public final class HttpLoadTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, 0, "http://localhost:8080");
+        int[] clientCounts = Arrays.stream(arg(args, 1, "1000,5000").split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = Integer.parseInt(arg(args, 2, "30"));
+        URL url = new URL(baseUrl + arg(args, 3, "/api/session"));
+
+        // keep one idle connection per client instead of the default 5, or most requests reconnect
+        System.setProperty("http.maxConnections", String.valueOf(Arrays.stream(clientCounts).max().orElse(5)));
+        String token = login(baseUrl, arg(args, 4, "yoga@studio.com"), arg(args, 5, "test!1234"));
+
+        for (int clients : clientCounts) {
+            run(url, token, clients, Math.max(1, seconds / 5), null);
+            Timer timer = Timer.builder("load.request")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(new SimpleMeterRegistry());
+            long errors = run(url, token, clients, seconds, timer);
+
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            System.out.printf("%s %d clients: %d requests, %d errors, %.0f req/s, %s%n",
+                    url.getPath(), clients, timer.count(), errors, (double) timer.count() / seconds,
+                    percentiles(snapshot.percentileValues()));
+        }
+    }
+
+    /**
+     * @return the number of failed requests; latencies of successful ones go to {@code timer} when present
+     */
+    private static long run(URL url, String token, int clients, int seconds, Timer timer) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        if (get(url, token) == HttpURLConnection.HTTP_OK) {
+                            if (timer != null) {
+                                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            }
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        return errors.get();
+    }
+
+    private static int get(URL url, String token) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+            int status = connection.getResponseCode();
+            drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static String login(String baseUrl, String email, String password) throws IOException {
+        ObjectNode request = OBJECT_MAPPER.createObjectNode()
+                .put("email", email)
+                .put("password", password);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/api/auth/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(OBJECT_MAPPER.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+        }
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new IllegalStateException("Login as " + email + " failed with HTTP " + connection.getResponseCode());
+        }
+        try (InputStream response = connection.getInputStream()) {
+            return OBJECT_MAPPER.readTree(response).get("token").asText();
+        }
+    }
+
+    private static void drain(InputStream stream) throws IOException {
+        if (stream == null) {
+            return;
+        }
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // the body is read so that the connection can be reused
+            }
+        }
+    }
+
+    private static String percentiles(ValueAtPercentile[] values) {
+        StringBuilder result = new StringBuilder();
+        for (ValueAtPercentile value : values) {
+            result.append(String.format("p%.0f %.1f ms ", value.percentile() * 100, value.value(TimeUnit.MILLISECONDS)));
+        }
+        return result.toString().trim();
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index && !args[index].isEmpty() ? args[index] : defaultValue;
+    }
+}
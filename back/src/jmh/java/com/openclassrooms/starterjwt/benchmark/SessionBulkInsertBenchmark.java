@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@value #SESSIONS} sessions through {@link SessionService}, one transaction per session as
+ * {@code POST /api/session} does, or all of them in one {@link SessionService#createAll} call, on an in-memory
+ * H2 database in MySQL mode built by the Flyway migrations. {@code batchSize} is the JDBC batch size, 1
+ * disabling batching. H2 runs in process, so the numbers leave out the network round trips that batching
+ * saves against MySQL.
+ *
+ * <pre>mvn -Pbenchmark test -Djmh.include=SessionBulkInsertBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 6, time = 4)
+@Measurement(iterations = 10, time = 4)
+@Fork(1)
+public class SessionBulkInsertBenchmark {
+
+    private static final int SESSIONS = 10_000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionService sessionService;
+
+    private SessionRepository sessionRepository;
+
+    private Teacher teacher;
+
+    private List<Session> sessions;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bulk;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        sessionService = context.getBean(SessionService.class);
+        sessionRepository = context.getBean(SessionRepository.class);
+        teacher = context.getBean(TeacherRepository.class).findAll().get(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void newSessions() {
+        sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date(i * 3_600_000L))
+                    .description("description")
+                    .teacher(teacher)
+                    .capacity(20)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteSessions() {
+        sessionRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long oneByOne() {
+        long last = 0;
+        for (Session session : sessions) {
+            last = sessionService.create(session).getId();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<Long> createAll() {
+        return sessionService.createAll(sessions);
+    }
+}
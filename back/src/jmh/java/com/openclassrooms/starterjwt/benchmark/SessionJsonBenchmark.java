@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding of the session list returned by GET /api/session, with the ObjectMapper
+ * defaults Spring Boot applies.
+ *
+ * <pre>mvn -Pbenchmark test -Djmh.include=SessionJsonBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int sessions;
+
+    @Param({"0", "20"})
+    private int participants;
+
+    private ObjectMapper objectMapper;
+
+    private List<SessionDto> sessionDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        sessionDtos = new ArrayList<>(sessions);
+        for (long id = 1; id <= sessions; id++) {
+            sessionDtos.add(BenchmarkFixtures.sessionDto(id, participants));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeSessionList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sessionDtos);
+    }
+}
@@ -0,0 +1,159 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waitlist operations on one full session with a long queue, through {@link SessionService} on an in-memory
+ * H2 database in MySQL mode built by the Flyway migrations. One user in ten left the queue, so positions
+ * are computed across gaps. The cost of each operation should not depend on the length of the queue.
+ *
+ * <pre>mvn -Pbenchmark test -Djmh.include=WaitlistBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WaitlistBenchmark {
+
+    private static final int ROTATIONS = 10_000;
+
+    @Param({"100", "10000"})
+    private int waitlisted;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionService sessionService;
+
+    private Long sessionId;
+
+    private Long participant;
+
+    /**
+     * Users still waiting, head first, mirrored to know who each cancellation promotes.
+     */
+    private final Deque<Long> queue = new ArrayDeque<>();
+
+    private Long last;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:waitlist;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        sessionService = context.getBean(SessionService.class);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= waitlisted + waitlisted / 9 + 1; i++) {
+            users.add(User.builder()
+                    .email("waiting" + i + "@studio.com")
+                    .firstName("first")
+                    .lastName("last")
+                    .password("password")
+                    .admin(false)
+                    .build());
+        }
+        users = context.getBean(UserRepository.class).saveAll(users);
+
+        Teacher teacher = context.getBean(TeacherRepository.class).findAll().get(0);
+
+        // the same work before the warmup iterations whatever the queue length, on another session, so
+        // that JIT compilation does not favour the longer setup
+        sessionId = fullSession(teacher);
+        participant = fill(users.subList(0, 10), 9);
+        for (int i = 0; i < ROTATIONS; i++) {
+            cancelAndRejoin();
+        }
+
+        queue.clear();
+        sessionId = fullSession(teacher);
+        participant = fill(users, waitlisted);
+        last = queue.peekLast();
+    }
+
+    private Long fullSession(Teacher teacher) {
+        return context.getBean(SessionRepository.class).save(Session.builder()
+                .name("Full session")
+                .date(new Date())
+                .description("description")
+                .teacher(teacher)
+                .capacity(1)
+                .build()).getId();
+    }
+
+    /**
+     * Books the single seat for the first user and queues the next ones, one in ten of them leaving the queue.
+     *
+     * @return the participant
+     */
+    private Long fill(List<User> users, int waiting) {
+        sessionService.participate(sessionId, users.get(0).getId());
+        for (int i = 1; queue.size() < waiting; i++) {
+            Long userId = users.get(i).getId();
+            sessionService.joinWaitlist(sessionId, userId);
+            if (i % 10 == 0) {
+                sessionService.leaveWaitlist(sessionId, userId);
+            } else {
+                queue.addLast(userId);
+            }
+        }
+        return users.get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long position() {
+        return sessionService.getWaitlistPosition(sessionId, last);
+    }
+
+    /**
+     * The participant cancels, the head of the queue takes the seat, the participant queues again at
+     * the tail: the queue keeps its length from one invocation to the next.
+     */
+    @Benchmark
+    public long cancelAndRejoin() {
+        sessionService.noLongerParticipate(sessionId, participant);
+        long position = sessionService.joinWaitlist(sessionId, participant);
+        queue.addLast(participant);
+        participant = queue.pollFirst();
+        return position;
+    }
+}
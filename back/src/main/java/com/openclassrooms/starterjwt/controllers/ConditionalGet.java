@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * ETag and Last-Modified handling for GET endpoints, derived from {@code updatedAt}. Requests without
+ * validators are answered from the loaded entities; only conditional ones pay for a version query first.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Adds the validators to the response and returns true, with the status set to 304, when the client
+     * copy is still current; the handler must then return null.
+     */
+    static boolean checkNotModified(WebRequest request, String resource, LocalDateTime lastModified) {
+        if (lastModified == null) {
+            return false;
+        }
+        long lastModifiedMillis = lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified("W/\"" + resource + "-" + lastModifiedMillis + "\"", lastModifiedMillis);
+    }
+
+    /**
+     * Most recent of {@code updates}, null when there is none.
+     */
+    static LocalDateTime latest(Stream<LocalDateTime> updates) {
+        return updates.filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+    }
+}
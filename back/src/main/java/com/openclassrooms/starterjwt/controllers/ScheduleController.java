@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.services.ScheduleService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Date;
+
+/**
+ * Reactive counterpart of the session and teacher listings. With {@code Accept: application/x-ndjson}
+ * or {@code text/event-stream} each item is written as soon as it is read and the next page is only
+ * fetched once the client has consumed the previous one; plain JSON collects the whole list.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/schedule")
+public class ScheduleController {
+    private final ScheduleService scheduleService;
+    private final SessionMapper sessionMapper;
+    private final TeacherMapper teacherMapper;
+
+    public ScheduleController(ScheduleService scheduleService,
+                              SessionMapper sessionMapper,
+                              TeacherMapper teacherMapper) {
+        this.scheduleService = scheduleService;
+        this.sessionMapper = sessionMapper;
+        this.teacherMapper = teacherMapper;
+    }
+
+    @GetMapping("/session")
+    public Flux<SessionDto> findSessions(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                         @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                         @RequestParam(value = "teacherId", required = false) Long teacherId) {
+        return this.scheduleService.findSessions(from, to, teacherId, this.sessionMapper::toDto);
+    }
+
+    @GetMapping("/teacher")
+    public Flux<TeacherDto> findTeachers() {
+        return this.scheduleService.findTeachers(this.teacherMapper::toDto);
+    }
+}
@@ -1,15 +1,35 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionBulkRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionPatchRequest;
+import com.openclassrooms.starterjwt.payload.response.SessionBulkResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
+import com.openclassrooms.starterjwt.payload.response.WaitlistResponse;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,24 +37,43 @@ import java.util.List;
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    public static final String VIEW_DETAIL = "detail";
+
+    public static final String VIEW_SUMMARY = "summary";
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            Long sessionId = Long.valueOf(id);
+            String resource = "session-" + sessionId;
+            if (ConditionalGet.isConditional(request)
+                    && ConditionalGet.checkNotModified(request, resource, this.sessionService.getLastModified(sessionId))) {
+                return null;
+            }
+
+            Session session = this.sessionService.getById(sessionId);
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
+            if (ConditionalGet.checkNotModified(request, resource, session.getUpdatedAt())) {
+                return null;
+            }
 
             return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
@@ -42,29 +81,147 @@ public class SessionController {
         }
     }
 
+    /**
+     * The collection version is the session count with the latest {@code updatedAt}. {@code view=summary}
+     * returns only id, name, date and teacher, selected as such in SQL.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(@RequestParam(value = "view", defaultValue = VIEW_DETAIL) String view, WebRequest request) {
+        boolean summary = VIEW_SUMMARY.equals(view);
+        if (!summary && !VIEW_DETAIL.equals(view)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String resource = summary ? "sessions-summary-" : "sessions-";
+
+        if (ConditionalGet.isConditional(request)) {
+            EntityVersion version = this.sessionService.getVersion();
+            if (version != null && ConditionalGet.checkNotModified(request, resource + version.getCount(), version.getLastModified())) {
+                return null;
+            }
+        }
+
+        if (summary) {
+            List<SessionSummary> sessions = this.sessionService.findAllSummaries();
+            LocalDateTime lastModified = ConditionalGet.latest(sessions.stream().map(SessionSummary::getUpdatedAt));
+            if (ConditionalGet.checkNotModified(request, resource + sessions.size(), lastModified)) {
+                return null;
+            }
+
+            return ResponseEntity.ok().body(this.sessionMapper.toSummaryDto(sessions));
+        }
+
         List<Session> sessions = this.sessionService.findAll();
+        LocalDateTime lastModified = ConditionalGet.latest(sessions.stream().map(Session::getUpdatedAt));
+        if (ConditionalGet.checkNotModified(request, resource + sessions.size(), lastModified)) {
+            return null;
+        }
 
         return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
     }
 
+    /**
+     * A cursor without {@code limit} continues with pages of {@link SessionService#DEFAULT_PAGE_SIZE}.
+     */
+    @GetMapping(params = {"cursor", "!limit"})
+    public ResponseEntity<?> findNextPage(@RequestParam("cursor") String cursor,
+                                          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                          @RequestParam(value = "teacherId", required = false) Long teacherId) {
+        return findPage(cursor, null, from, to, teacherId);
+    }
+
+    @GetMapping(params = {"limit"})
+    public ResponseEntity<?> findPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam("limit") Integer limit,
+                                      @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                      @RequestParam(value = "teacherId", required = false) Long teacherId) {
+        Slice<Session> page = this.sessionService.findPage(
+                cursor != null ? SessionCursor.decode(cursor) : null, limit, from, to, teacherId);
+
+        List<Session> sessions = page.getContent();
+        String next = page.hasNext() ? SessionCursor.of(sessions.get(sessions.size() - 1)).encode() : null;
+
+        return ResponseEntity.ok().body(new SessionPageResponse(this.sessionMapper.toDto(sessions), next));
+    }
+
+    /**
+     * Writes every session as it is read, one JSON object per line by default
+     * or as a single JSON array with {@code format=json}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean jsonArray = "json".equals(format);
+        if (!jsonArray && !"ndjson".equals(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = this.objectMapper.writerFor(SessionDto.class);
+            try (SequenceWriter sequenceWriter = jsonArray
+                    ? writer.writeValuesAsArray(outputStream)
+                    : writer.withRootValueSeparator("\n").writeValues(outputStream)) {
+                this.sessionService.forEachChunk(sessions -> {
+                    try {
+                        sequenceWriter.writeAll(this.sessionMapper.toDto(sessions));
+                        sequenceWriter.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
 
         Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
+        log.info("Session {} created", session.getId());
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    @PostMapping("bulk")
+    public ResponseEntity<?> createAll(@Valid @RequestBody SessionBulkRequest request) {
+        List<Long> ids = this.sessionService.createAll(this.sessionMapper.toEntity(request.toSessionDtos()));
+
+        log.info("{} sessions created", ids.size());
+        return ResponseEntity.ok().body(new SessionBulkResponse(ids));
+    }
+
+    /**
+     * Replaces the session, its participants only when {@code users} is given. 409 when {@code version} is
+     * given and the session changed since.
+     */
     @PutMapping("{id}")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+            Session session = this.sessionService.update(Long.parseLong(id), sessionDto.getVersion(),
+                    current -> this.sessionMapper.update(sessionDto, current), this.sessionMapper.toUsers(sessionDto.getUsers()));
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok().body(this.sessionMapper.toWrittenDto(session));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Updates only the fields given, writing only the columns that changed. 409 when the session changed
+     * since {@code version}.
+     */
+    @PatchMapping("{id}")
+    public ResponseEntity<?> patch(@PathVariable("id") String id, @Valid @RequestBody SessionPatchRequest patch) {
+        try {
+            Session session = this.sessionService.update(Long.parseLong(id), patch.getVersion(),
+                    current -> this.sessionMapper.update(patch, current), this.sessionMapper.toUsers(patch.getUsers()));
+
+            return ResponseEntity.ok().body(this.sessionMapper.toWrittenDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -107,4 +264,37 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            long position = this.sessionService.joinWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().body(new WaitlistResponse(position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> getWaitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            long position = this.sessionService.getWaitlistPosition(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().body(new WaitlistResponse(position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.sessionService.leaveWaitlist(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
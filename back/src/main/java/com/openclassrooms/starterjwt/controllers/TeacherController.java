@@ -2,9 +2,13 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -22,13 +26,23 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
-            Teacher teacher = this.teacherService.findById(Long.valueOf(id));
+            Long teacherId = Long.valueOf(id);
+            String resource = "teacher-" + teacherId;
+            if (ConditionalGet.isConditional(request)
+                    && ConditionalGet.checkNotModified(request, resource, this.teacherService.getLastModified(teacherId))) {
+                return null;
+            }
+
+            Teacher teacher = this.teacherService.findById(teacherId);
 
             if (teacher == null) {
                 return ResponseEntity.notFound().build();
             }
+            if (ConditionalGet.checkNotModified(request, resource, teacher.getUpdatedAt())) {
+                return null;
+            }
 
             return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
         } catch (NumberFormatException e) {
@@ -37,8 +51,19 @@ public class TeacherController {
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(WebRequest request) {
+        if (ConditionalGet.isConditional(request)) {
+            EntityVersion version = this.teacherService.getVersion();
+            if (version != null && ConditionalGet.checkNotModified(request, "teachers-" + version.getCount(), version.getLastModified())) {
+                return null;
+            }
+        }
+
         List<Teacher> teachers = this.teacherService.findAll();
+        LocalDateTime lastModified = ConditionalGet.latest(teachers.stream().map(Teacher::getUpdatedAt));
+        if (ConditionalGet.checkNotModified(request, "teachers-" + teachers.size(), lastModified)) {
+            return null;
+        }
 
         return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
     }
@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in ({@code oc.app.readReplicas.enabled=true}) split of the database traffic: read-only transactions go
+ * to the replicas listed in {@code oc.app.readReplicas.urls}, everything else to the primary configured by
+ * {@code spring.datasource.*}, replicas more than {@code oc.app.readReplicas.maxLagMs} behind being left out.
+ * Replica reads bypass the caches, so a read after a write is stale by at most about {@code maxLagMs} plus
+ * {@code oc.app.readReplicas.checkIntervalMs}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "oc.app.readReplicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primary,
+            @Value("${oc.app.readReplicas.urls}") String[] urls,
+            @Value("${oc.app.readReplicas.username:${spring.datasource.username:}}") String username,
+            @Value("${oc.app.readReplicas.password:${spring.datasource.password:}}") String password,
+            @Value("${oc.app.readReplicas.maxLagMs:5000}") long maxLagMs) {
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.add(new Replica(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagMs);
+    }
+
+    /**
+     * What JPA, Flyway and {@code JdbcTemplate} use: the physical connection is only taken at the first
+     * statement, once the transaction's read-only flag is set.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Checks the replicas every {@code oc.app.readReplicas.checkIntervalMs}, 0 leaving the checks to the
+     * caller.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                               ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               @Value("${oc.app.readReplicas.checkIntervalMs:1000}") long checkIntervalMs) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replicaRoutingDataSource.getReplicas(),
+                Clock.systemUTC());
+        if (checkIntervalMs > 0) {
+            monitor.start(checkIntervalMs);
+        }
+        return monitor;
+    }
+
+    /**
+     * Sets {@link ReplicaCacheModeJpaDialect} on the entity manager factory, which the transaction manager
+     * takes its dialect from.
+     */
+    @Bean
+    public static BeanPostProcessor replicaCacheModeJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean) {
+                    ((AbstractEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaCacheModeJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Hibernate otherwise keeps the connection of the first transaction of a request until the request ends,
+     * under open-in-view, so a write following a read-only transaction would run on a replica.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
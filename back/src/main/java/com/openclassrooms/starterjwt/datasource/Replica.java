@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+
+/**
+ * A read replica pool and the replication lag last measured on it by {@link ReplicaLagMonitor}. The lag is
+ * unknown, and the replica unused, until a first check succeeds and again after a failed one.
+ */
+@Getter
+public class Replica {
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private volatile Long lagMs;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    void setLagMs(Long lagMs) {
+        this.lagMs = lagMs;
+    }
+
+    public boolean isWithin(long maxLagMs) {
+        Long lag = lagMs;
+        return lag != null && lag <= maxLagMs;
+    }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * Keeps what read-only transactions load out of the second-level cache: they may run on a lagging replica,
+ * and a stale copy put in the cache would outlive the lag until its region expires. They still read the
+ * cache, and read-write transactions, on the primary, fill it. The store mode is a JPA property rather than
+ * the Hibernate cache mode because {@code find} derives its cache mode from it. The previous store mode is
+ * restored once the transaction ends, since under open-in-view the same entity manager serves the rest of
+ * the request.
+ */
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        Object previousStoreMode = entityManager.getProperties().get(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE);
+        entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReadOnlyTransactionData(transactionData, entityManager,
+                previousStoreMode != null ? previousStoreMode : CacheStoreMode.USE);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData) {
+            ReadOnlyTransactionData readOnly = (ReadOnlyTransactionData) transactionData;
+            readOnly.entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, readOnly.previousStoreMode);
+            transactionData = readOnly.transactionData;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static class ReadOnlyTransactionData {
+        private final Object transactionData;
+
+        private final EntityManager entityManager;
+
+        private final Object previousStoreMode;
+
+        ReadOnlyTransactionData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+            this.transactionData = transactionData;
+            this.entityManager = entityManager;
+            this.previousStoreMode = previousStoreMode;
+        }
+    }
+}
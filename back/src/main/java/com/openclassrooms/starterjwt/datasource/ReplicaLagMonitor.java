@@ -0,0 +1,76 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replication lag of each replica: writes the current time to the {@code REPLICA_HEARTBEAT} row
+ * on the primary, then reads the row back from every replica, whose copy is as old as the replica is late.
+ * A replica catching up within a check shows no lag, so the lag is only known to the check interval. A
+ * replica that cannot be read loses its lag, and its reads, until the next successful check.
+ */
+public class ReplicaLagMonitor implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+
+    private final List<Replica> replicas;
+
+    private final Clock clock;
+
+    private ScheduledExecutorService executor;
+
+    public ReplicaLagMonitor(DataSource primary, List<Replica> replicas, Clock clock) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks every {@code intervalMs} from now on, on a thread of its own.
+     */
+    public synchronized void start(long intervalMs) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+            executor.scheduleWithFixedDelay(this::check, 0, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void check() {
+        long now = clock.millis();
+        try {
+            primary.update("UPDATE REPLICA_HEARTBEAT SET beat_at = ? WHERE id = 1", new Timestamp(now));
+        } catch (DataAccessException e) {
+            logger.warn("Unable to write the replica heartbeat on the primary: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            try {
+                Timestamp beat = new JdbcTemplate(replica.getDataSource())
+                        .queryForObject("SELECT beat_at FROM REPLICA_HEARTBEAT WHERE id = 1", Timestamp.class);
+                replica.setLagMs(Math.max(0, clock.millis() - beat.getTime()));
+            } catch (DataAccessException e) {
+                replica.setLagMs(null);
+                logger.warn("Unable to read the heartbeat of replica {}: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the connections of {@code @Transactional(readOnly = true)} work to the replicas, round robin among
+ * those lagging at most {@code maxLagMs} behind, and every other connection to the primary, which also
+ * serves the reads when no replica is fit. The read-only flag is only known once the transaction has begun,
+ * so this must sit behind a {@code LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, DisposableBean {
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+
+    private final long maxLagMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile Map<String, Counter> connectionCounters;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long maxLagMs) {
+        this.replicas = Collections.unmodifiableList(replicas);
+        this.maxLagMs = maxLagMs;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String pool = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? nextReplica() : PRIMARY;
+        Map<String, Counter> counters = connectionCounters;
+        if (counters != null) {
+            counters.get(pool).increment();
+        }
+        return pool;
+    }
+
+    private String nextReplica() {
+        int size = replicas.size();
+        int start = size > 0 ? Math.floorMod(next.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isWithin(maxLagMs)) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Counts the connections handed out by pool, gauges the lag and fitness of each replica, and gives the
+     * replica pools, which are not beans, the {@code hikaricp.*} metrics Boot binds to the primary one.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Counter> counters = new HashMap<>();
+        counters.put(PRIMARY, connectionCounter(registry, PRIMARY));
+        for (Replica replica : replicas) {
+            counters.put(replica.getName(), connectionCounter(registry, replica.getName()));
+            Gauge.builder("yoga.datasource.replica.lag", replica,
+                            r -> r.getLagMs() != null ? r.getLagMs() / 1000.0 : Double.NaN)
+                    .description("Replication lag last measured on the replica, NaN when it could not be read")
+                    .tag("pool", replica.getName())
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("yoga.datasource.replica.available", replica, r -> r.isWithin(maxLagMs) ? 1 : 0)
+                    .description("1 when the replica serves read-only transactions, 0 when they fall back to the primary")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+            if (replica.getDataSource() instanceof HikariDataSource) {
+                HikariDataSource pool = (HikariDataSource) replica.getDataSource();
+                if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+        }
+        connectionCounters = counters;
+    }
+
+    private static Counter connectionCounter(MeterRegistry registry, String pool) {
+        return Counter.builder("yoga.datasource.connections")
+                .description("Connections handed out by the routing data source, by pool")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    /**
+     * Closes the replica pools; the primary one is a bean of its own.
+     */
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof HikariDataSource) {
+                ((HikariDataSource) replica.getDataSource()).close();
+            }
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionPatchRequest;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.hibernate.Hibernate;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.Mappings;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,19 +36,154 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
     TeacherService teacherService;
     @Autowired
     UserService userService;
+    @Autowired
+    SessionService sessionService;
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
-            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.getReference(sessionDto.getTeacher_id()) : null)"),
+            @Mapping(target = "users", expression = "java(this.userService.getReferences(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList)))"),
+            @Mapping(target = "seatsTaken", ignore = true),
+            @Mapping(target = "waitlistTickets", ignore = true),
+            @Mapping(target = "version", ignore = true),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
+    @Mappings({
+            @Mapping(source = "sessionDto.description", target = "description"),
+            @Mapping(target = "teacher", expression = "java(teachers.get(sessionDto.getTeacher_id()))"),
+            @Mapping(target = "users", expression = "java(this.userService.getReferences(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList)))"),
+            @Mapping(target = "seatsTaken", ignore = true),
+            @Mapping(target = "waitlistTickets", ignore = true),
+            @Mapping(target = "version", ignore = true),
+    })
+    protected abstract Session toEntity(SessionDto sessionDto, @Context Map<Long, Teacher> teachers);
+
+    /**
+     * Checks the teachers of every session with one query instead of one per session.
+     */
+    @Override
+    public List<Session> toEntity(List<SessionDto> sessionDtos) {
+        if (sessionDtos == null) {
+            return null;
+        }
+        Map<Long, Teacher> teachers = this.teacherService.getReferences(sessionDtos.stream()
+                .map(SessionDto::getTeacher_id)
+                .collect(Collectors.toSet()));
+        return sessionDtos.stream().map(sessionDto -> toEntity(sessionDto, teachers)).collect(Collectors.toList());
+    }
+
+    /**
+     * Copies every column of {@code sessionDto} onto the managed {@code session}; participants are left to
+     * {@link SessionService#update}. A missing capacity keeps the current one, as the form does not send it.
+     */
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "teacher", expression = "java(teacher(sessionDto.getTeacher_id(), session.getTeacher()))"),
+            @Mapping(target = "capacity", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE),
+            @Mapping(target = "users", ignore = true),
+            @Mapping(target = "seatsTaken", ignore = true),
+            @Mapping(target = "waitlistTickets", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "createdAt", ignore = true),
+            @Mapping(target = "updatedAt", ignore = true),
+    })
+    public abstract void update(SessionDto sessionDto, @MappingTarget Session session);
+
+    /**
+     * Copies the fields set in {@code patch} onto the managed {@code session}.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "teacher", expression = "java(patch.getTeacher_id() != null ? teacher(patch.getTeacher_id(), session.getTeacher()) : session.getTeacher())"),
+            @Mapping(target = "users", ignore = true),
+            @Mapping(target = "seatsTaken", ignore = true),
+            @Mapping(target = "waitlistTickets", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "createdAt", ignore = true),
+            @Mapping(target = "updatedAt", ignore = true),
+    })
+    public abstract void update(SessionPatchRequest patch, @MappingTarget Session session);
+
+    /**
+     * The current teacher when unchanged, so that an update does not look it up again.
+     */
+    protected Teacher teacher(Long teacherId, Teacher current) {
+        if (current != null && current.getId().equals(teacherId)) {
+            return current;
+        }
+        return this.teacherService.getReference(teacherId);
+    }
+
+    /**
+     * References to the users listed, null when no list was given.
+     */
+    public List<User> toUsers(List<Long> userIds) {
+        return userIds != null ? this.userService.getReferences(userIds) : null;
+    }
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(source = "session.teacher.id", target = "teacher_id"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
+            @Mapping(target = "users", expression = "java(participantIds(session, participantIds))"),
     })
-    public abstract SessionDto toDto(Session session);
+    protected abstract SessionDto toDto(Session session, @Context Map<Long, List<Long>> participantIds);
+
+    @Override
+    public SessionDto toDto(Session session) {
+        if (session == null) {
+            return null;
+        }
+        return toDto(session, fetchParticipantIds(Collections.singletonList(session)));
+    }
+
+    /**
+     * {@link #toDto(Session)} for the session a write just returned, its participants read from the primary.
+     */
+    public SessionDto toWrittenDto(Session session) {
+        if (session == null) {
+            return null;
+        }
+        List<Long> sessionIds = unloadedParticipantsSessionIds(Collections.singletonList(session));
+        return toDto(session, sessionIds.isEmpty() ? Collections.emptyMap() : this.sessionService.findWrittenParticipantIds(sessionIds));
+    }
+
+    @Override
+    public List<SessionDto> toDto(List<Session> sessions) {
+        if (sessions == null) {
+            return null;
+        }
+        Map<Long, List<Long>> participantIds = fetchParticipantIds(sessions);
+        return sessions.stream().map(session -> toDto(session, participantIds)).collect(Collectors.toList());
+    }
+
+    @Mapping(source = "teacherId", target = "teacher_id")
+    public abstract SessionSummaryDto toSummaryDto(SessionSummary summary);
+
+    public abstract List<SessionSummaryDto> toSummaryDto(List<SessionSummary> summaries);
+
+    /**
+     * Reads the participant ids of every session whose users collection is not loaded yet in one query,
+     * so mapping never hydrates User entities.
+     */
+    private Map<Long, List<Long>> fetchParticipantIds(List<Session> sessions) {
+        List<Long> sessionIds = unloadedParticipantsSessionIds(sessions);
+        return sessionIds.isEmpty() ? Collections.emptyMap() : this.sessionService.findParticipantIds(sessionIds);
+    }
+
+    private static List<Long> unloadedParticipantsSessionIds(List<Session> sessions) {
+        return sessions.stream()
+                .filter(session -> session.getUsers() != null && !Hibernate.isInitialized(session.getUsers()))
+                .map(Session::getId)
+                .collect(Collectors.toList());
+    }
+
+    protected List<Long> participantIds(Session session, Map<Long, List<Long>> participantIds) {
+        List<User> users = session.getUsers();
+        if (users != null && !Hibernate.isInitialized(users)) {
+            return participantIds.getOrDefault(session.getId(), Collections.emptyList());
+        }
+        return Optional.ofNullable(users).orElseGet(Collections::emptyList).stream().map(User::getId).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+
+/**
+ * One row of the PARTICIPATE join table, so a single participation can be
+ * checked, added or removed without loading {@link Session#getUsers()}.
+ */
+@Entity
+@Table(name = "PARTICIPATE", indexes = {
+        @Index(name = "IDX_PARTICIPATE_USER_ID", columnList = "user_id")
+})
+@IdClass(ParticipationId.class)
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class Participation {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+}
@@ -3,11 +3,19 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -16,8 +24,14 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "IDX_SESSIONS_DATE_ID", columnList = "date, id"),
+        @Index(name = "IDX_SESSIONS_TEACHER_DATE_ID", columnList = "teacher_id, date, id")
+})
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Session.CACHE_REGION)
 @Data
 @Accessors(chain = true)
 @EqualsAndHashCode(of = {"id"})
@@ -26,8 +40,27 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 public class Session {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    public static final String CACHE_REGION = "session";
+
+    public static final String USERS_CACHE_REGION = "session-users";
+
+    /**
+     * Allocated {@value #ID_ALLOCATION_SIZE} at a time from the ID_GENERATORS table instead of by the
+     * auto-increment column, so inserts no longer need a round trip each to learn their key and Hibernate
+     * can batch them.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "session_ids")
+    @GenericGenerator(name = "session_ids", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "ID_GENERATORS"),
+            @Parameter(name = "segment_column_name", value = "name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "SESSIONS"),
+            @Parameter(name = "increment_size", value = "" + Session.ID_ALLOCATION_SIZE),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @NotBlank
@@ -41,11 +74,42 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
+    /**
+     * Maximum number of participants, unlimited when null.
+     */
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Participants counted by the booking queries of {@link com.openclassrooms.starterjwt.repository.SessionRepository},
+     * the only writers of this column.
+     */
+    @ColumnDefault("0")
+    @Column(name = "seats_taken", insertable = false, updatable = false)
+    private int seatsTaken;
+
+    /**
+     * Last waitlist ticket issued by {@link com.openclassrooms.starterjwt.repository.SessionRepository#issueTicket}.
+     */
+    @ColumnDefault("0")
+    @Column(name = "waitlist_tickets", insertable = false, updatable = false)
+    private long waitlistTickets;
+
+    /**
+     * Incremented by every update of the session, its participants included: the seat counter queries of
+     * {@link com.openclassrooms.starterjwt.repository.SessionRepository} increment it too.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @OneToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Session.USERS_CACHE_REGION)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
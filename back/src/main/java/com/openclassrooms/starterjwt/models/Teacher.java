@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,6 +16,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "TEACHERS")
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Teacher.CACHE_REGION)
 @Data
 @Accessors(chain = true)
 @EqualsAndHashCode(of = {"id"})
@@ -22,6 +26,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class Teacher {
+    public static final String CACHE_REGION = "teacher";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
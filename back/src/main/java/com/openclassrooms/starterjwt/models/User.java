@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,11 +15,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")
 })
 @Data
 @Accessors(chain = true)
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @EqualsAndHashCode(of = {"id"})
 @Builder
 @NoArgsConstructor
@@ -25,6 +29,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class User {
+  public static final String CACHE_REGION = "user";
+
+  /** Named so that a failed insert can tell a taken email from any other violation. */
+  public static final String EMAIL_UNIQUE_CONSTRAINT = "UK_USERS_EMAIL";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+
+/**
+ * One ticket of a session waitlist, served in ticket order. A null user marks a ticket whose user left
+ * the queue: the row stays until the head passes it so the positions behind it remain exact.
+ */
+@Entity
+@Table(name = "WAITLIST", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_WAITLIST_SESSION_USER", columnNames = {"session_id", "user_id"})
+})
+@IdClass(WaitlistEntryId.class)
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class WaitlistEntry {
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Id
+    @Column(name = "ticket")
+    private Long ticket;
+
+    @Column(name = "user_id")
+    private Long userId;
+}
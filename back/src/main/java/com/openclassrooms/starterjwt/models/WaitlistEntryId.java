@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long sessionId;
+
+    private Long ticket;
+}
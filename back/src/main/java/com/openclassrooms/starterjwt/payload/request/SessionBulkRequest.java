@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sessions to create in one call, either listed or generated by a recurrence.
+ */
+@Data
+public class SessionBulkRequest {
+  public static final int MAX_SESSIONS = 10_000;
+
+  @Valid
+  @Size(min = 1, max = MAX_SESSIONS)
+  private List<SessionDto> sessions;
+
+  @Valid
+  private SessionRecurrence recurrence;
+
+  public List<SessionDto> toSessionDtos() {
+    if ((sessions == null) == (recurrence == null)) {
+      throw new BadRequestException("Either sessions or recurrence is required");
+    }
+    if (sessions != null) {
+      return sessions;
+    }
+
+    SessionDto template = recurrence.getSession();
+    return recurrence.occurrences(MAX_SESSIONS).stream()
+        .map(date -> new SessionDto(null, template.getName(), date, template.getTeacher_id(), template.getDescription(),
+            template.getCapacity(), template.getUsers(), null, null, null))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset position in the (date, id) ordering of sessions.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionCursor {
+  private final Date date;
+  private final Long id;
+
+  public static SessionCursor of(Session session) {
+    return new SessionCursor(session.getDate(), session.getId());
+  }
+
+  public static SessionCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split(":");
+      if (parts.length != 2) {
+        throw new BadRequestException();
+      }
+      return new SessionCursor(new Date(Long.parseLong(parts[0])), Long.valueOf(parts[1]));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException();
+    }
+  }
+
+  public String encode() {
+    String raw = date.getTime() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
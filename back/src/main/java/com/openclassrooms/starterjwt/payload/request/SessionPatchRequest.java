@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Partial update of a session: every field left null keeps its current value, so a capacity cannot be
+ * removed this way. {@code version} is the version the client read.
+ */
+@Data
+public class SessionPatchRequest {
+  @Size(max = 50)
+  @Pattern(regexp = "(?s).*\\S.*")
+  private String name;
+
+  private Date date;
+
+  private Long teacher_id;
+
+  @Size(max = 2500)
+  private String description;
+
+  @Min(1)
+  private Integer capacity;
+
+  private List<Long> users;
+
+  @NotNull
+  private Long version;
+}
@@ -0,0 +1,98 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repeats {@code session} from its date every {@code interval} days or weeks, on the given days of the
+ * week for a weekly rule, until {@code count} occurrences or {@code until}, whichever comes first. The time
+ * of day is kept in {@code zone} across daylight saving changes.
+ */
+@Data
+public class SessionRecurrence {
+  public enum Frequency {
+    DAILY,
+    WEEKLY
+  }
+
+  @NotNull
+  @Valid
+  private SessionDto session;
+
+  @NotNull
+  private Frequency frequency;
+
+  @Min(1)
+  private int interval = 1;
+
+  /**
+   * Weekly rules only, the day of the first session when empty.
+   */
+  private Set<DayOfWeek> days;
+
+  @Min(1)
+  private Integer count;
+
+  private Date until;
+
+  private String zone = "UTC";
+
+  /**
+   * @throws BadRequestException when the rule is unbounded, its zone unknown or it repeats more than {@code max} times
+   */
+  public List<Date> occurrences(int max) {
+    if (count == null && until == null) {
+      throw new BadRequestException("A recurrence needs a count or an end date");
+    }
+    try {
+      return occurrences(session.getDate().toInstant().atZone(ZoneId.of(zone)), max);
+    } catch (DateTimeException e) {
+      throw new BadRequestException("Invalid recurrence: " + e.getMessage());
+    }
+  }
+
+  private List<Date> occurrences(ZonedDateTime start, int max) {
+    Set<DayOfWeek> weekDays = days == null || days.isEmpty() ? EnumSet.of(start.getDayOfWeek()) : EnumSet.copyOf(days);
+    ZonedDateTime period = frequency == Frequency.WEEKLY ? start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : start;
+    List<Date> dates = new ArrayList<>();
+    while (true) {
+      List<ZonedDateTime> candidates = new ArrayList<>();
+      if (frequency == Frequency.WEEKLY) {
+        for (DayOfWeek day : weekDays) {
+          candidates.add(period.plusDays(day.ordinal()));
+        }
+      } else {
+        candidates.add(period);
+      }
+
+      for (ZonedDateTime candidate : candidates) {
+        if (candidate.isBefore(start)) {
+          continue;
+        }
+        if ((count != null && dates.size() == count) || (until != null && candidate.toInstant().isAfter(until.toInstant()))) {
+          return dates;
+        }
+        if (dates.size() == max) {
+          throw new BadRequestException("A recurrence cannot create more than " + max + " sessions");
+        }
+        dates.add(Date.from(candidate.toInstant()));
+      }
+      period = frequency == Frequency.WEEKLY ? period.plusWeeks(interval) : period.plusDays(interval);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SessionBulkResponse {
+  private List<Long> ids;
+
+  public SessionBulkResponse(List<Long> ids) {
+    this.ids = ids;
+  }
+}
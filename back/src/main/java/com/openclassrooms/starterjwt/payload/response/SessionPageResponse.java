@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SessionPageResponse {
+  private List<SessionDto> sessions;
+  private String next;
+
+  public SessionPageResponse(List<SessionDto> sessions, String next) {
+    this.sessions = sessions;
+    this.next = next;
+  }
+}
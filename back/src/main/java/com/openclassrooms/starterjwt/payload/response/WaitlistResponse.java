@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class WaitlistResponse {
+  /**
+   * 1-based position in the waitlist, 0 once the user holds a seat.
+   */
+  private long position;
+
+  public WaitlistResponse(long position) {
+    this.position = position;
+  }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest update of a table: changes whenever a row is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityVersion {
+    private final Long count;
+
+    private final LocalDateTime lastModified;
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+@Repository
+public interface ParticipationRepository extends JpaRepository<Participation, ParticipationId> {
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    long countBySessionId(Long sessionId);
+
+    /**
+     * Declares the table it writes so that Hibernate only invalidates the cached participants, not every
+     * cache region as it does for native statements it cannot analyse. Only the existing row is skipped: an
+     * unknown session or user still fails on the foreign key.
+     *
+     * @return 0 when the user already participates
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) SELECT :sessionId, :userId FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId)",
+            nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Participation p WHERE p.sessionId = :sessionId AND p.userId = :userId")
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query("SELECT new com.openclassrooms.starterjwt.repository.SessionParticipant(p.sessionId, p.userId) " +
+            "FROM Participation p WHERE p.sessionId IN :sessionIds")
+    List<SessionParticipant> findParticipantIds(@Param("sessionIds") Collection<Long> sessionIds);
+}
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Row of the PARTICIPATE join table, read without hydrating the User entity.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionParticipant {
+    private final Long sessionId;
+
+    private final Long userId;
+}
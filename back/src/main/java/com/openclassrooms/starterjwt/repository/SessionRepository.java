@@ -1,9 +1,142 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Query space of the seat and ticket statements. Declaring the SESSIONS table would make Hibernate evict
+     * every cached session on each booking; this space matches no entity, so nothing is evicted or flushed for
+     * them, and the caller evicts the one session it changed once pending changes to it are flushed. No cached
+     * query reads SESSIONS, so no query result goes stale.
+     */
+    String SEATS_QUERY_SPACE = "SESSION_SEATS";
+
+    @Query("SELECT s FROM Session s " +
+            "WHERE (:teacherId IS NULL OR s.teacher.id = :teacherId) " +
+            "AND (:from IS NULL OR s.date >= :from) " +
+            "AND (:to IS NULL OR s.date < :to) " +
+            "ORDER BY s.date ASC, s.id ASC")
+    Slice<Session> findFirstPage(@Param("from") Date from,
+                                 @Param("to") Date to,
+                                 @Param("teacherId") Long teacherId,
+                                 Pageable pageable);
+
+    @Query("SELECT s FROM Session s " +
+            "WHERE (s.date > :cursorDate OR (s.date = :cursorDate AND s.id > :cursorId)) " +
+            "AND (:teacherId IS NULL OR s.teacher.id = :teacherId) " +
+            "AND (:from IS NULL OR s.date >= :from) " +
+            "AND (:to IS NULL OR s.date < :to) " +
+            "ORDER BY s.date ASC, s.id ASC")
+    Slice<Session> findPageAfter(@Param("cursorDate") Date cursorDate,
+                                 @Param("cursorId") Long cursorId,
+                                 @Param("from") Date from,
+                                 @Param("to") Date to,
+                                 @Param("teacherId") Long teacherId,
+                                 Pageable pageable);
+
+    /**
+     * Every session in id order, read through a JDBC cursor. Must be consumed inside a transaction
+     * and closed. MySQL honours the fetch size only with {@code useCursorFetch}, which turns every statement
+     * into a server-side prepared statement, hence the prepared statement cache set alongside it.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.teacher ORDER BY s.id ASC")
+    Stream<Session> streamAll();
+
+    @Query("SELECT new com.openclassrooms.starterjwt.repository.SessionSummary(s.id, s.name, s.date, s.teacher.id, s.updatedAt) " +
+            "FROM Session s ORDER BY s.id ASC")
+    List<SessionSummary> findAllSummaries();
+
+    @Query("SELECT s.updatedAt FROM Session s WHERE s.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("SELECT new com.openclassrooms.starterjwt.repository.EntityVersion(COUNT(s), MAX(s.updatedAt)) FROM Session s")
+    EntityVersion findVersion();
+
+    /**
+     * Takes a seat if one is left, in a single conditional update: the session row stays locked until the
+     * transaction ends, so concurrent bookings of one session are serialized and never exceed the capacity.
+     * The version is incremented, so that an update based on the previous participants is rejected.
+     *
+     * @return 0 when the session is full or does not exist
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = SEATS_QUERY_SPACE))
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken + 1, version = version + 1, updated_at = :updatedAt " +
+            "WHERE id = :id AND (capacity IS NULL OR seats_taken < capacity)", nativeQuery = true)
+    int takeSeat(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Gives a seat back, locking the session row like {@link #takeSeat}.
+     *
+     * @return 0 when the session does not exist
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = SEATS_QUERY_SPACE))
+    @Query(value = "UPDATE SESSIONS SET seats_taken = CASE WHEN seats_taken > 0 THEN seats_taken - 1 ELSE 0 END, " +
+            "version = version + 1, updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int releaseSeat(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Issues the next waitlist ticket, only while every seat is taken; like {@link #takeSeat} it keeps the
+     * session row locked, so tickets are dense and a seat cannot be given back before the user is queued.
+     *
+     * @return 0 when a seat is free or the session does not exist
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = SEATS_QUERY_SPACE))
+    @Query(value = "UPDATE SESSIONS SET waitlist_tickets = waitlist_tickets + 1 " +
+            "WHERE id = :id AND capacity IS NOT NULL AND seats_taken >= capacity", nativeQuery = true)
+    int issueTicket(@Param("id") Long id);
+
+    /**
+     * Locks the session row, for waitlist changes that do not touch the seats.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s.id FROM Session s WHERE s.id = :id")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * Resets the seat counter from the join table, after the participants were replaced through the entity.
+     * The version is left alone: replacing the participants already incremented it.
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.seatsTaken = " +
+            "(SELECT COUNT(p) FROM Participation p WHERE p.sessionId = s.id) WHERE s.id = :id")
+    int recountSeats(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Session s SET s.seatsTaken = " +
+            "(SELECT COUNT(p) FROM Participation p WHERE p.sessionId = s.id) WHERE s.id IN :ids")
+    int recountSeatsIn(@Param("ids") Collection<Long> ids);
 }
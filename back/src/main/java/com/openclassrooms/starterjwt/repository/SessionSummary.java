@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Columns of SESSIONS needed for a schedule listing, without the description or the participants.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionSummary {
+    private final Long id;
+
+    private final String name;
+
+    private final Date date;
+
+    private final Long teacherId;
+
+    private final LocalDateTime updatedAt;
+}
@@ -1,15 +1,43 @@
 package com.openclassrooms.starterjwt.repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.openclassrooms.starterjwt.models.User;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+  String FIND_BY_EMAIL_CACHE_REGION = "user-by-email";
+
+  /**
+   * Cached as the id of the user, itself read from the user region. Any write to USERS invalidates the
+   * cached results.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HINT_CACHE_REGION, value = FIND_BY_EMAIL_CACHE_REGION)
+  })
   Optional<User> findByEmail(String email);
 
   Boolean existsByEmail(String email); 
+
+  @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+  Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+  int updatePassword(@Param("email") String email, @Param("password") String password);
 }
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.models.WaitlistEntryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+/**
+ * Every query is a lookup on the (session_id, ticket) primary key or the (session_id, user_id) unique key,
+ * which InnoDB extends with the ticket, so none of them walks the queue. Writes expect the caller to hold
+ * the session row lock.
+ */
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, WaitlistEntryId> {
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    Optional<WaitlistEntry> findBySessionIdAndUserId(Long sessionId, Long userId);
+
+    /**
+     * First user waiting with a ticket after {@code after}. The ticket range and the ordering on the whole
+     * primary key let the database read the first entries of that index instead of sorting the session's
+     * tickets through the foreign key index.
+     */
+    Optional<WaitlistEntry> findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(
+            Long sessionId, Long after);
+
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w " +
+            "WHERE w.sessionId = :sessionId AND w.userId IS NULL AND w.ticket > :after AND w.ticket < :before")
+    long countLeftBetween(@Param("sessionId") Long sessionId,
+                          @Param("after") Long after,
+                          @Param("before") Long before);
+
+    /**
+     * Appends the user with the ticket just issued by {@link SessionRepository#issueTicket}. Only WAITLIST is
+     * written, which no cache region holds.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "WAITLIST"))
+    @Query(value = "INSERT INTO WAITLIST (session_id, ticket, user_id) " +
+            "SELECT s.id, s.waitlist_tickets, :userId FROM SESSIONS s WHERE s.id = :sessionId", nativeQuery = true)
+    int enqueue(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.userId = NULL WHERE w.sessionId = :sessionId AND w.userId IN :userIds")
+    int leave(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Removes a promoted ticket, or the head of the queue, together with the tickets left before it.
+     */
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.sessionId = :sessionId AND w.ticket <= :ticket")
+    int deleteUpTo(@Param("sessionId") Long sessionId, @Param("ticket") Long ticket);
+}
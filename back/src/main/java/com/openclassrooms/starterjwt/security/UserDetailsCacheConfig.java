@@ -0,0 +1,41 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+public class UserDetailsCacheConfig {
+  public static final String USER_DETAILS_CACHE = "userDetails";
+
+  @Value("${oc.app.userDetailsCache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${oc.app.userDetailsCache.spec:maximumSize=10000,expireAfterWrite=5m,recordStats}")
+  private String spec;
+
+  /**
+   * UserDetails resolved by the JWT filter, keyed by email. Entries must be evicted when a user is
+   * deleted or changes password. Set oc.app.userDetailsCache.enabled=false to always hit the database.
+   */
+  @Bean
+  public UserCache userCache(CacheManager cacheManager) {
+    if (!enabled) {
+      return new NullUserCache();
+    }
+    return new SpringCacheBasedUserCache(cacheManager.getCache(USER_DETAILS_CACHE));
+  }
+
+  @Bean
+  public CacheManagerCustomizer<CaffeineCacheManager> userDetailsCacheCustomizer() {
+    return cacheManager -> cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.from(spec).build());
+  }
+}
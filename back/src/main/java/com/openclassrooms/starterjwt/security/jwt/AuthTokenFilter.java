@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -10,8 +11,10 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
@@ -19,6 +22,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -26,33 +32,79 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private UserCache userCache;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /** Build the principal from token claims instead of loading the user. */
+  @Value("${oc.app.jwtStateless.enabled:false}")
+  private boolean statelessJwt;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
+    long start = System.nanoTime();
+    String outcome = "anonymous";
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        UsernamePasswordAuthenticationToken authentication =
-            new UsernamePasswordAuthenticationToken(
-                userDetails,
-                null,
-                userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+      if (jwt != null) {
+        Claims claims = jwtUtils.parseAndValidate(jwt);
+        UserDetails userDetails = statelessJwt ? loadUserFromClaims(claims) : loadUser(claims.getSubject());
+        outcome = "revoked";
+        if (userDetails != null) {
+          UsernamePasswordAuthenticationToken authentication =
+              new UsernamePasswordAuthenticationToken(
+                  userDetails,
+                  null,
+                  userDetails.getAuthorities());
+          authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+          SecurityContextHolder.getContext().setAuthentication(authentication);
+          outcome = "authenticated";
+        }
       }
+    } catch (InvalidJwtException e) {
+      outcome = "invalid";
+      logger.error("Invalid JWT token ({}): {}", e.getReason(), e.getMessage());
     } catch (Exception e) {
+      outcome = "error";
       logger.error("Cannot set user authentication: {}", e);
     }
+    recordAuthentication(outcome, System.nanoTime() - start);
 
     filterChain.doFilter(request, response);
   }
 
+  private void recordAuthentication(String outcome, long durationNanos) {
+    if (meterRegistry != null) {
+      meterRegistry.timer("jwt.authentication", "outcome", outcome).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private UserDetails loadUser(String username) {
+    UserDetails userDetails = userCache.getUserFromCache(username);
+    if (userDetails == null) {
+      userDetails = userDetailsService.loadUserByUsername(username);
+      userCache.putUserInCache(userDetails);
+    }
+    return userDetails;
+  }
+
+  private UserDetails loadUserFromClaims(Claims claims) {
+    if (tokenRevocationList.isRevoked(claims.getSubject(), claims.getIssuedAt())) {
+      logger.warn("JWT token of {} has been revoked", claims.getSubject());
+      return null;
+    }
+    return jwtUtils.getUserDetailsFromClaims(claims);
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Local to one instance; replace with a shared implementation when the API is scaled out.
+ * An entry only needs to outlive the tokens it rejects, so it expires after the token lifetime.
+ */
+@Component
+public class InMemoryTokenRevocationList implements TokenRevocationList {
+  private final Cache<String, Long> revokedAt;
+
+  public InMemoryTokenRevocationList(@Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs) {
+    this.revokedAt = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(jwtExpirationMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Override
+  public void revoke(String username) {
+    revokedAt.put(username, System.currentTimeMillis());
+  }
+
+  @Override
+  public boolean isRevoked(String username, Date issuedAt) {
+    Long revocation = revokedAt.getIfPresent(username);
+    return revocation != null && (issuedAt == null || issuedAt.getTime() <= revocation);
+  }
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidJwtException extends RuntimeException {
+  public enum Reason {
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY
+  }
+
+  private final Reason reason;
+
+  public InvalidJwtException(Reason reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+}
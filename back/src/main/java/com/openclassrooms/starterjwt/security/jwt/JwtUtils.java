@@ -1,59 +1,254 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Component
-public class JwtUtils {
+public class JwtUtils implements MeterBinder {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+  static final String ID_CLAIM = "id";
+  static final String FIRST_NAME_CLAIM = "firstName";
+  static final String LAST_NAME_CLAIM = "lastName";
+  static final String ADMIN_CLAIM = "admin";
+
+  static final String VERIFIED_TOKENS_CACHE = "verifiedTokens";
+
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${oc.app.jwtStateless.enabled:false}")
+  private boolean statelessJwt;
+
+  @Value("${oc.app.jwtStateless.expirationMs:900000}")
+  private int statelessJwtExpirationMs;
+
+  /** Keep the claims of verified tokens until they expire, so each token is verified once per node. */
+  @Value("${oc.app.jwtCache.enabled:false}")
+  private boolean verifiedTokenCacheEnabled;
+
+  @Value("${oc.app.jwtCache.maximumSize:10000}")
+  private long verifiedTokenCacheMaximumSize;
+
+  /** Decoded once; the parser is fully configured up front and only read afterwards. */
+  private volatile Key signingKey;
+
+  private volatile JwtParser parser;
+
+  private volatile Cache<String, Claims> verifiedTokens;
+
+  private volatile Timer verificationTimer;
+
+  private volatile Map<InvalidJwtException.Reason, Counter> failureCounters;
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+    int expirationMs = statelessJwt ? statelessJwtExpirationMs : jwtExpirationMs;
 
     return Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
+        .claim(ID_CLAIM, userPrincipal.getId())
+        .claim(FIRST_NAME_CLAIM, userPrincipal.getFirstName())
+        .claim(LAST_NAME_CLAIM, userPrincipal.getLastName())
+        .claim(ADMIN_CLAIM, userPrincipal.getAdmin())
         .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setExpiration(new Date((new Date()).getTime() + expirationMs))
+        .signWith(SignatureAlgorithm.HS512, getSigningKey())
         .compact();
   }
 
-  public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+  /**
+   * Verifies the signature and expiration once and returns the claims.
+   *
+   * @throws InvalidJwtException with the reason the token was rejected
+   */
+  public Claims parseAndValidate(String token) {
+    Cache<String, Claims> cache = getVerifiedTokens();
+    if (cache == null) {
+      return verify(token);
+    }
+    return cache.get(hash(token), key -> verify(token));
   }
 
-  public boolean validateJwtToken(String authToken) {
+  private Claims verify(String token) {
+    Timer timer = verificationTimer;
+    if (timer == null) {
+      return parse(token);
+    }
+    return timer.record(() -> parse(token));
+  }
+
+  private Claims parse(String token) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return getParser().parseClaimsJws(token).getBody();
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      throw failure(InvalidJwtException.Reason.INVALID_SIGNATURE, e);
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      throw failure(InvalidJwtException.Reason.MALFORMED, e);
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      throw failure(InvalidJwtException.Reason.EXPIRED, e);
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      throw failure(InvalidJwtException.Reason.UNSUPPORTED, e);
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      throw failure(InvalidJwtException.Reason.EMPTY, e);
+    }
+  }
+
+  private InvalidJwtException failure(InvalidJwtException.Reason reason, RuntimeException cause) {
+    Map<InvalidJwtException.Reason, Counter> counters = failureCounters;
+    if (counters != null) {
+      counters.get(reason).increment();
+    }
+    return new InvalidJwtException(reason, cause.getMessage());
+  }
+
+  public String getUserNameFromJwtToken(String token) {
+    return parseAndValidate(token).getSubject();
+  }
+
+  /**
+   * Builds the principal from verified claims only. The password is not part of the token.
+   */
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    return UserDetailsImpl.builder()
+        .id(claims.get(ID_CLAIM, Long.class))
+        .username(claims.getSubject())
+        .firstName(claims.get(FIRST_NAME_CLAIM, String.class))
+        .lastName(claims.get(LAST_NAME_CLAIM, String.class))
+        .admin(claims.get(ADMIN_CLAIM, Boolean.class))
+        .build();
+  }
+
+  public boolean validateJwtToken(String authToken) {
+    try {
+      parseAndValidate(authToken);
+      return true;
+    } catch (InvalidJwtException e) {
+      logger.error("Invalid JWT token ({}): {}", e.getReason(), e.getMessage());
     }
 
     return false;
   }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    verificationTimer = Timer.builder("jwt.verification")
+        .description("Time spent parsing and verifying JWT signatures")
+        .register(registry);
+    Map<InvalidJwtException.Reason, Counter> counters = new EnumMap<>(InvalidJwtException.Reason.class);
+    for (InvalidJwtException.Reason reason : InvalidJwtException.Reason.values()) {
+      counters.put(reason, Counter.builder("jwt.validation.failures")
+          .description("JWT tokens rejected, by reason")
+          .tag("reason", reason.name().toLowerCase())
+          .register(registry));
+    }
+    failureCounters = counters;
+    Cache<String, Claims> cache = getVerifiedTokens();
+    if (cache != null) {
+      CaffeineCacheMetrics.monitor(registry, cache, VERIFIED_TOKENS_CACHE);
+    }
+  }
+
+  private Cache<String, Claims> getVerifiedTokens() {
+    if (!verifiedTokenCacheEnabled) {
+      return null;
+    }
+    Cache<String, Claims> cache = verifiedTokens;
+    if (cache == null) {
+      synchronized (this) {
+        cache = verifiedTokens;
+        if (cache == null) {
+          cache = Caffeine.newBuilder()
+              .maximumSize(verifiedTokenCacheMaximumSize)
+              .expireAfter(new UntilTokenExpiration())
+              .recordStats()
+              .build();
+          verifiedTokens = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class UntilTokenExpiration implements Expiry<String, Claims> {
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+      Date expiration = claims.getExpiration();
+      if (expiration == null) {
+        return Long.MAX_VALUE;
+      }
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
+  private JwtParser getParser() {
+    JwtParser jwtParser = parser;
+    if (jwtParser == null) {
+      jwtParser = Jwts.parser().setSigningKey(getSigningKey());
+      parser = jwtParser;
+    }
+    return jwtParser;
+  }
+
+  private Key getSigningKey() {
+    Key key = signingKey;
+    if (key == null) {
+      Assert.hasText(jwtSecret, "JWT secret is not configured");
+      key = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+      signingKey = key;
+    }
+    return key;
+  }
 }
@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+
+/**
+ * Tokens of a revoked user that were issued before the revocation are rejected in stateless mode.
+ */
+public interface TokenRevocationList {
+  void revoke(String username);
+
+  boolean isRevoked(String username, Date issuedAt);
+}
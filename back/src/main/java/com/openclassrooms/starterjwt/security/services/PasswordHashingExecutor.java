@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs BCrypt work (login, registration) off the request threads on a fixed pool with a bounded
+ * queue. When both are full the task is refused with a 429 instead of stalling every endpoint.
+ */
+@Component
+public class PasswordHashingExecutor implements MeterBinder, DisposableBean {
+  private final ThreadPoolExecutor executor;
+
+  public PasswordHashingExecutor(@Value("${oc.app.passwordHashing.threads:0}") int threads,
+                                 @Value("${oc.app.passwordHashing.queueCapacity:50}") int queueCapacity) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * @throws TooManyRequestsException when the pool and its queue are saturated
+   */
+  public <T> CompletableFuture<T> submit(Supplier<T> task) {
+    try {
+      return CompletableFuture.supplyAsync(task, executor);
+    } catch (RejectedExecutionException e) {
+      throw new TooManyRequestsException("Too many concurrent authentications, retry later");
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(registry);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
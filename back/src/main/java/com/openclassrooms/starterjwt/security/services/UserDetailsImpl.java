@@ -5,10 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Objects;
 
 @Builder
@@ -17,6 +19,13 @@ import java.util.Objects;
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
+    private static final Collection<GrantedAuthority> USER_AUTHORITIES =
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private static final Collection<GrantedAuthority> ADMIN_AUTHORITIES =
+            Collections.unmodifiableList(Arrays.asList(
+                    new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+
     private Long id;
 
     private String username;
@@ -31,7 +40,7 @@ public class UserDetailsImpl implements UserDetails {
     private String password;
 
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return new HashSet<GrantedAuthority>();
+        return Boolean.TRUE.equals(admin) ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
     }
 
     @Override
@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.Consumer;
+
+/**
+ * The cached participants and seat counters of each session. Bookings write the PARTICIPATE table through
+ * {@link com.openclassrooms.starterjwt.repository.ParticipationRepository}, which Hibernate does not relate
+ * to {@code Session.users}, and the seat counters through native statements that leave the session region
+ * alone, so they have to evict the one session they changed themselves.
+ */
+@Component
+public class ParticipantsCache {
+    private static final String ROLE = Session.class.getName() + ".users";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ParticipantsCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Evicts the participants of the session now, then again once the current transaction completes so that a
+     * list read meanwhile from the previous state of the table is not kept.
+     */
+    public void evict(Long sessionId) {
+        evictNowAndAfterCompletion(cache -> cache.evictCollectionData(ROLE, sessionId));
+    }
+
+    /**
+     * Evicts the session itself, after a seat counter or waitlist ticket update, the same way as {@link #evict}.
+     */
+    public void evictSeats(Long sessionId) {
+        evictNowAndAfterCompletion(cache -> cache.evictEntityData(Session.class, sessionId));
+    }
+
+    private void evictNowAndAfterCompletion(Consumer<Cache> eviction) {
+        Cache cache = this.entityManagerFactory.getCache().unwrap(Cache.class);
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Non-blocking read path for the public schedule. The JPA queries stay blocking but run on a dedicated
+ * bounded scheduler sized like the connection pool, and sessions are read one keyset page per downstream
+ * request, so a slow client holds neither a request thread nor more than a page of sessions.
+ */
+@Service
+public class ScheduleService implements DisposableBean {
+    private final SessionService sessionService;
+
+    private final TeacherService teacherService;
+
+    private final Scheduler scheduler;
+
+    public ScheduleService(SessionService sessionService,
+                           TeacherService teacherService,
+                           @Value("${oc.app.reactiveRead.threads:10}") int threads,
+                           @Value("${oc.app.reactiveRead.queueCapacity:1000}") int queueCapacity) {
+        this.sessionService = sessionService;
+        this.teacherService = teacherService;
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueCapacity, "reactive-read");
+    }
+
+    /**
+     * Sessions matching the filters in (date, id) order. {@code mapper} converts each page on the read
+     * scheduler, so it may query the database too.
+     */
+    public <T> Flux<T> findSessions(Date from, Date to, Long teacherId, Function<List<Session>, List<T>> mapper) {
+        return Flux.<List<T>, Optional<SessionCursor>>generate(Optional::empty, (cursor, sink) -> {
+                    Slice<Session> page = this.sessionService.findPage(
+                            cursor.orElse(null), SessionService.MAX_PAGE_SIZE, from, to, teacherId);
+                    List<Session> sessions = page.getContent();
+                    if (sessions.isEmpty()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    sink.next(mapper.apply(sessions));
+                    if (!page.hasNext()) {
+                        sink.complete();
+                    }
+                    return Optional.of(SessionCursor.of(sessions.get(sessions.size() - 1)));
+                })
+                .subscribeOn(this.scheduler)
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    public <T> Flux<T> findTeachers(Function<List<Teacher>, List<T>> mapper) {
+        return Mono.fromCallable(() -> mapper.apply(this.teacherService.findAll()))
+                .subscribeOn(this.scheduler)
+                .flatMapIterable(Function.identity());
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.dispose();
+    }
+}
@@ -1,78 +1,460 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Session ids per {@code IN} list when reading participants, to keep the statement and its plan bounded.
+     */
+    public static final int PARTICIPANT_IDS_CHUNK_SIZE = 1000;
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final ParticipationRepository participationRepository;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final ParticipantsCache participantsCache;
+
+    private final EntityManager entityManager;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          ParticipationRepository participationRepository,
+                          WaitlistRepository waitlistRepository,
+                          ParticipantsCache participantsCache,
+                          EntityManager entityManager) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.participationRepository = participationRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.participantsCache = participantsCache;
+        this.entityManager = entityManager;
     }
 
+    @Timed("yoga.service")
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        return saveWithParticipants(session);
+    }
+
+    /**
+     * Inserts the sessions in JDBC batches of {@link Session#ID_ALLOCATION_SIZE} rows: the ids come from the
+     * pooled generator without a round trip per row, and the persistence context is flushed and cleared after
+     * each batch so that it does not grow with the number of sessions.
+     *
+     * @return the ids of the sessions, in order
+     */
+    @Timed("yoga.service")
+    @Transactional
+    public List<Long> createAll(List<Session> sessions) {
+        sessions.forEach(SessionService::checkCapacity);
+
+        List<Long> ids = new ArrayList<>(sessions.size());
+        List<Long> booked = new ArrayList<>();
+        for (Session session : sessions) {
+            Long id = this.sessionRepository.save(session).getId();
+            ids.add(id);
+            if (session.getUsers() != null && !session.getUsers().isEmpty()) {
+                booked.add(id);
+            }
+            if (ids.size() % Session.ID_ALLOCATION_SIZE == 0) {
+                flushBatch(booked);
+                booked = new ArrayList<>();
+            }
+        }
+        flushBatch(booked);
+        return ids;
     }
 
+    private void flushBatch(List<Long> booked) {
+        this.entityManager.flush();
+        if (!booked.isEmpty()) {
+            this.sessionRepository.recountSeatsIn(booked);
+        }
+        this.entityManager.clear();
+    }
+
+    /**
+     * Evicts the session and its participants like the booking writes, so that no cached copy outlives the row.
+     */
+    @Timed("yoga.service")
+    @Transactional
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.participantsCache.evict(id);
+        this.participantsCache.evictSeats(id);
     }
 
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public List<SessionSummary> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    /**
+     * Streams every session to {@code consumer} in chunks of {@link SessionRepository#EXPORT_FETCH_SIZE},
+     * detaching each chunk once consumed so memory stays flat whatever the number of sessions.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public void forEachChunk(Consumer<List<Session>> consumer) {
+        try (Stream<Session> sessions = this.sessionRepository.streamAll()) {
+            List<Session> chunk = new ArrayList<>(SessionRepository.EXPORT_FETCH_SIZE);
+            sessions.forEachOrdered(session -> {
+                chunk.add(session);
+                if (chunk.size() == SessionRepository.EXPORT_FETCH_SIZE) {
+                    consumer.accept(chunk);
+                    chunk.clear();
+                    this.entityManager.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * Keyset pagination over (date, id): returns at most {@code limit} sessions strictly after {@code cursor}.
+     * A null cursor starts from the first session matching the filters.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public Slice<Session> findPage(SessionCursor cursor, Integer limit, Date from, Date to, Long teacherId) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1) {
+            throw new BadRequestException();
+        }
+        Pageable pageable = PageRequest.of(0, Math.min(size, MAX_PAGE_SIZE));
+
+        if (cursor == null) {
+            return this.sessionRepository.findFirstPage(from, to, teacherId, pageable);
+        }
+        return this.sessionRepository.findPageAfter(cursor.getDate(), cursor.getId(), from, to, teacherId, pageable);
+    }
+
+    /**
+     * Participant ids per session, read from the join table so no User entity is loaded, with one query per
+     * {@link #PARTICIPANT_IDS_CHUNK_SIZE} sessions.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> ids = new ArrayList<>(sessionIds);
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += PARTICIPANT_IDS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PARTICIPANT_IDS_CHUNK_SIZE, ids.size()));
+            for (SessionParticipant participant : this.participationRepository.findParticipantIds(chunk)) {
+                participantIds.computeIfAbsent(participant.getSessionId(), id -> new ArrayList<>())
+                        .add(participant.getUserId());
+            }
+        }
+        return participantIds;
+    }
+
+    /**
+     * {@link #findParticipantIds} read from the primary, for a response to a write that a lagging replica may
+     * not have applied yet.
+     */
+    @Timed("yoga.service")
+    @Transactional
+    public Map<Long, List<Long>> findWrittenParticipantIds(Collection<Long> sessionIds) {
+        return findParticipantIds(sessionIds);
+    }
+
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
-    public Session update(Long id, Session session) {
-        session.setId(id);
-        return this.sessionRepository.save(session);
+    /**
+     * {@code updatedAt} of a session without loading it, null when unknown.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public LocalDateTime getLastModified(Long id) {
+        return this.sessionRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public EntityVersion getVersion() {
+        return this.sessionRepository.findVersion();
     }
 
+    /**
+     * Applies {@code changes} to the session, or fails with a conflict when it is no longer at {@code version};
+     * a null version skips that check, though a concurrent update is still detected on flush. Only the modified
+     * columns are written. The participants are replaced only when {@code participants} is not null, in which
+     * case waiting users now listed leave the waitlist. Seats freed by a larger capacity go to the head of the
+     * waitlist.
+     */
+    @Timed("yoga.service")
+    @Transactional
+    public Session update(Long id, Long version, Consumer<Session> changes, List<User> participants) {
+        Session session = this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+        if (version != null && !version.equals(session.getVersion())) {
+            throw new ConflictException("Session was modified");
+        }
+
+        changes.accept(session);
+        checkCapacity(session, participants != null ? participants.size() : session.getSeatsTaken());
+        if (participants != null) {
+            // changed in place: a new list would be compared to its snapshot on every later flush, loading each user
+            session.getUsers().clear();
+            session.getUsers().addAll(participants);
+        }
+
+        try {
+            this.sessionRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Session was modified");
+        }
+
+        if (participants != null) {
+            this.sessionRepository.recountSeats(id);
+            if (!participants.isEmpty()) {
+                this.waitlistRepository.leave(id, participants.stream().map(User::getId).collect(Collectors.toList()));
+            }
+        }
+        if (promoteFromWaitlist(id, Integer.MAX_VALUE) > 0) {
+            // the seat counter queries incremented the version
+            this.entityManager.refresh(session);
+        }
+        return session;
+    }
+
+    /**
+     * Books a seat. The seat is taken before anything else is checked: from then on this transaction holds
+     * the session row lock, so the duplicate check and the insert cannot race with another booking or
+     * cancellation of the same session, and any exception gives the seat back on rollback.
+     */
+    @Timed("yoga.service")
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+        if (!this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+        if (!takeSeat(id)) {
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new ConflictException("Session is full");
+        }
+
+        addParticipant(id, userId);
+    }
+
+    /**
+     * Cancels a booking and hands the seat to the head of the waitlist in the same transaction.
+     */
+    @Timed("yoga.service")
+    @Transactional
+    public void noLongerParticipate(Long id, Long userId) {
+        if (!releaseSeat(id)) {
+            throw new NotFoundException();
+        }
+
+        if (this.participationRepository.removeParticipant(id, userId) == 0) {
             throw new BadRequestException();
         }
+        this.participantsCache.evict(id);
+        promoteFromWaitlist(id, 1);
+    }
+
+    /**
+     * Books a seat when one is free, otherwise queues the user.
+     *
+     * @return the position in the waitlist, 0 when the user got a seat
+     */
+    @Timed("yoga.service")
+    @Transactional
+    public long joinWaitlist(Long id, Long userId) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
 
-        session.getUsers().add(user);
+        while (!issueTicket(id)) {
+            if (takeSeat(id)) {
+                addParticipant(id, userId);
+                return 0;
+            }
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            // the last seat was taken between the two updates: the session is full now
+        }
 
-        this.sessionRepository.save(session);
+        if (this.participationRepository.existsBySessionIdAndUserId(id, userId)
+                || this.waitlistRepository.existsBySessionIdAndUserId(id, userId)) {
+            throw new BadRequestException();
+        }
+        this.waitlistRepository.enqueue(id, userId);
+        return getWaitlistPosition(id, userId);
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+    @Timed("yoga.service")
+    @Transactional
+    public void leaveWaitlist(Long id, Long userId) {
+        if (!this.sessionRepository.lockById(id).isPresent()) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (this.waitlistRepository.leave(id, Collections.singletonList(userId)) == 0) {
             throw new BadRequestException();
         }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+        // keep the head of the queue a waiting user, so it is always the first ticket read
+        Long head = findWaitlistHead(id).map(WaitlistEntry::getTicket).orElse(Long.MAX_VALUE);
+        this.waitlistRepository.deleteUpTo(id, head - 1);
+    }
+
+    /**
+     * 1-based position of the user in the waitlist, from the ticket numbers: two index lookups and a count
+     * of the users who left ahead, whatever the length of the queue.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public long getWaitlistPosition(Long id, Long userId) {
+        WaitlistEntry entry = this.waitlistRepository.findBySessionIdAndUserId(id, userId)
+                .orElseThrow(NotFoundException::new);
+        long head = findWaitlistHead(id).map(WaitlistEntry::getTicket).orElse(entry.getTicket());
+        return entry.getTicket() - head + 1 - this.waitlistRepository.countLeftBetween(id, head, entry.getTicket());
+    }
+
+    /**
+     * Must run once the caller holds a seat: the exception thrown when the user already participates gives
+     * the seat back on rollback. The check answers a repeated click without writing; the insert's row count
+     * catches a concurrent join of the same user that the check, reading an older snapshot, missed.
+     */
+    private void addParticipant(Long id, Long userId) {
+        if (this.participationRepository.existsBySessionIdAndUserId(id, userId)
+                || this.participationRepository.addParticipant(id, userId) == 0) {
+            throw new BadRequestException();
+        }
+        this.participantsCache.evict(id);
+    }
 
-        this.sessionRepository.save(session);
+    /**
+     * The seat and ticket statements only evict the session they changed, leaving the rest of its region cached.
+     */
+    private boolean takeSeat(Long id) {
+        return evictSeatsIfChanged(id, this.sessionRepository.takeSeat(id, LocalDateTime.now()));
+    }
+
+    private boolean releaseSeat(Long id) {
+        return evictSeatsIfChanged(id, this.sessionRepository.releaseSeat(id, LocalDateTime.now()));
+    }
+
+    private boolean issueTicket(Long id) {
+        return evictSeatsIfChanged(id, this.sessionRepository.issueTicket(id));
+    }
+
+    private boolean evictSeatsIfChanged(Long id, int updated) {
+        if (updated == 0) {
+            return false;
+        }
+        this.participantsCache.evictSeats(id);
+        return true;
+    }
+
+    private Optional<WaitlistEntry> findWaitlistHead(Long id) {
+        return this.waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(id, 0L);
+    }
+
+    /**
+     * Moves up to {@code seats} users from the head of the waitlist to the participants, while seats are free.
+     *
+     * @return the number of users promoted
+     */
+    private int promoteFromWaitlist(Long id, int seats) {
+        int promoted = 0;
+        while (promoted < seats) {
+            Optional<WaitlistEntry> next = findWaitlistHead(id);
+            if (!next.isPresent() || !takeSeat(id)) {
+                break;
+            }
+            this.waitlistRepository.deleteUpTo(id, next.get().getTicket());
+            if (this.participationRepository.addParticipant(id, next.get().getUserId()) == 0) {
+                // already participating: drop the ticket and give the seat to the next user
+                releaseSeat(id);
+                continue;
+            }
+            this.participantsCache.evict(id);
+            promoted++;
+        }
+        return promoted;
+    }
+
+    private Session saveWithParticipants(Session session) {
+        checkCapacity(session);
+
+        Session saved = this.sessionRepository.save(session);
+        this.sessionRepository.recountSeats(saved.getId());
+        return saved;
+    }
+
+    private static void checkCapacity(Session session) {
+        List<User> users = session.getUsers();
+        checkCapacity(session, users != null ? users.size() : 0);
+    }
+
+    private static void checkCapacity(Session session, int participants) {
+        if (session.getCapacity() != null && participants > session.getCapacity()) {
+            throw new BadRequestException();
+        }
     }
 }
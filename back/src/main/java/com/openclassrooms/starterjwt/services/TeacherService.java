@@ -1,24 +1,85 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TeacherService {
+    public static final String TEACHERS_CACHE = "teachers";
+
+    public static final String TEACHER_CACHE = "teacher";
+
     private final TeacherRepository teacherRepository;
 
     public TeacherService(TeacherRepository teacherRepository) {
         this.teacherRepository = teacherRepository;
     }
 
+    /**
+     * Not read-only, like {@link #findById}: a cached result must come from the primary, not a lagging replica.
+     */
+    @Timed("yoga.service")
+    @Cacheable(TEACHERS_CACHE)
+    @Transactional
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    @Timed("yoga.service")
+    @Cacheable(cacheNames = TEACHER_CACHE, unless = "#result == null")
+    @Transactional
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
+
+    /**
+     * {@code updatedAt} of a teacher without loading it, null when unknown.
+     */
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public LocalDateTime getLastModified(Long id) {
+        return this.teacherRepository.findUpdatedAtById(id).orElse(null);
+    }
+
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
+    public EntityVersion getVersion() {
+        return this.teacherRepository.findVersion();
+    }
+
+    @Timed("yoga.service")
+    public Teacher getReference(Long id) {
+        if (!this.teacherRepository.existsById(id)) {
+            throw new BadRequestException("Unknown teacher id: " + id);
+        }
+        return this.teacherRepository.getById(id);
+    }
+
+    /**
+     * Lazy references by id, the ids checked with a single id-only query.
+     */
+    @Timed("yoga.service")
+    public Map<Long, Teacher> getReferences(Collection<Long> ids) {
+        Set<Long> existingIds = this.teacherRepository.findExistingIds(ids);
+        List<Long> unknownIds = ids.stream().filter(id -> !existingIds.contains(id)).distinct().collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            throw new BadRequestException("Unknown teacher ids: " + unknownIds);
+        }
+
+        return existingIds.stream().collect(Collectors.toMap(Function.identity(), this.teacherRepository::getById));
+    }
 }
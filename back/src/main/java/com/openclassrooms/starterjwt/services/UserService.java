@@ -1,22 +1,66 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final UserCache userCache;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    public UserService(UserRepository userRepository, UserCache userCache, TokenRevocationList tokenRevocationList) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
+    @Timed("yoga.service")
     public void delete(Long id) {
+        this.userRepository.findById(id).ifPresent(user -> {
+            this.userCache.removeUserFromCache(user.getEmail());
+            this.tokenRevocationList.revoke(user.getEmail());
+        });
         this.userRepository.deleteById(id);
     }
 
+    @Timed("yoga.service")
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Checks every id with a single id-only query and returns lazy references,
+     * so writing the association does not select the user rows. An id listed twice gives one reference.
+     */
+    @Timed("yoga.service")
+    public List<User> getReferences(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Set<Long> existingIds = this.userRepository.findExistingIds(distinctIds);
+        List<Long> unknownIds = distinctIds.stream().filter(id -> !existingIds.contains(id)).collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + unknownIds);
+        }
+
+        return distinctIds.stream().map(this.userRepository::getById).collect(Collectors.toList());
+    }
 }
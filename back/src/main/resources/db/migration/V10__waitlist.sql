@@ -0,0 +1,14 @@
+-- Per-session FIFO waitlist. Tickets come from SESSIONS.waitlist_tickets under the session row lock, so they
+-- are dense; a user leaving the queue keeps the row with a null user_id, which keeps positions exact:
+-- position = ticket - head ticket + 1 - rows left between the head and the ticket.
+ALTER TABLE `SESSIONS` ADD COLUMN `waitlist_tickets` BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE `WAITLIST` (
+  `session_id` BIGINT NOT NULL,
+  `ticket` BIGINT NOT NULL,
+  `user_id` BIGINT,
+  PRIMARY KEY (`session_id`, `ticket`),
+  CONSTRAINT `UK_WAITLIST_SESSION_USER` UNIQUE (`session_id`, `user_id`),
+  CONSTRAINT `FK_WAITLIST_SESSION` FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `FK_WAITLIST_USER` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE SET NULL
+);
@@ -0,0 +1,10 @@
+-- Session ids are handed out in blocks by Hibernate's table generator (pooled-lo: next_val is the first id of
+-- the next block), which lets session inserts be batched; the auto-increment stays for rows inserted by hand.
+CREATE TABLE `ID_GENERATORS` (
+  `name` VARCHAR(255) NOT NULL,
+  `next_val` BIGINT,
+  PRIMARY KEY (`name`)
+);
+
+INSERT INTO `ID_GENERATORS` (`name`, `next_val`)
+SELECT 'SESSIONS', COALESCE(MAX(`id`), 0) + 1 FROM `SESSIONS`;
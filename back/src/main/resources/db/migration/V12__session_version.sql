@@ -0,0 +1,2 @@
+-- Optimistic lock version of each session, bumped by every entity update and by the seat counter queries.
+ALTER TABLE `SESSIONS` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
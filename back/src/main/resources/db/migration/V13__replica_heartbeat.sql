@@ -0,0 +1,9 @@
+-- Single row rewritten on the primary by ReplicaLagMonitor and read back from each read replica: the age of
+-- the replica's copy is its replication lag.
+CREATE TABLE `REPLICA_HEARTBEAT` (
+  `id` INT NOT NULL,
+  `beat_at` DATETIME(6) NOT NULL,
+  PRIMARY KEY (`id`)
+);
+
+INSERT INTO `REPLICA_HEARTBEAT` (`id`, `beat_at`) VALUES (1, CURRENT_TIMESTAMP(6));
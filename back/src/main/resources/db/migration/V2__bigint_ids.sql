@@ -0,0 +1,12 @@
+-- The entities map every id as a Long, so the INT keys of the baseline fail schema validation.
+-- Widen the referenced and referencing columns together; the foreign keys are kept as they are.
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE `TEACHERS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `USERS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `SESSIONS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `SESSIONS` MODIFY `teacher_id` BIGINT;
+ALTER TABLE `PARTICIPATE` MODIFY `user_id` BIGINT NOT NULL;
+ALTER TABLE `PARTICIPATE` MODIFY `session_id` BIGINT NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
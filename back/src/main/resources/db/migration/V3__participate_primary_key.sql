@@ -0,0 +1,8 @@
+-- One row per booking: joins insert with INSERT IGNORE and rely on the key to skip a duplicate.
+-- The baseline table had no key, so a duplicate booking left by a double submit is collapsed first.
+CREATE TABLE `PARTICIPATE_DISTINCT` AS SELECT DISTINCT `session_id`, `user_id` FROM `PARTICIPATE`;
+DELETE FROM `PARTICIPATE`;
+INSERT INTO `PARTICIPATE` (`session_id`, `user_id`) SELECT `session_id`, `user_id` FROM `PARTICIPATE_DISTINCT`;
+DROP TABLE `PARTICIPATE_DISTINCT`;
+
+ALTER TABLE `PARTICIPATE` ADD PRIMARY KEY (`session_id`, `user_id`);
@@ -0,0 +1,2 @@
+-- Sessions in the (date, id) keyset order of the listings, with or without a date range.
+CREATE INDEX `IDX_SESSIONS_DATE_ID` ON `SESSIONS` (`date`, `id`);
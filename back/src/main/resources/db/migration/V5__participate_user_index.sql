@@ -0,0 +1,2 @@
+-- Sessions of one user; the primary key only serves lookups by session.
+CREATE INDEX `IDX_PARTICIPATE_USER_ID` ON `PARTICIPATE` (`user_id`);
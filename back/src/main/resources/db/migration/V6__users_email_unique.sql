@@ -0,0 +1,3 @@
+-- Registration inserts without checking first and reports this constraint as a taken email; it also indexes login.
+-- Accounts sharing an email must be merged by hand before this migration can run.
+ALTER TABLE `USERS` ADD CONSTRAINT `UK_USERS_EMAIL` UNIQUE (`email`);
@@ -0,0 +1,3 @@
+-- Sessions of one teacher, read in the (date, id) keyset order of the listings.
+-- It also serves the foreign key, so MySQL drops the implicit index on teacher_id.
+CREATE INDEX `IDX_SESSIONS_TEACHER_DATE_ID` ON `SESSIONS` (`teacher_id`, `date`, `id`);
@@ -0,0 +1,8 @@
+-- Optional capacity per session and a seat counter, kept by the booking queries under the session row lock.
+ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT;
+ALTER TABLE `SESSIONS` ADD COLUMN `seats_taken` INT NOT NULL DEFAULT 0;
+
+-- Existing bookings; updated_at is set to itself so the backfill does not invalidate cached listings.
+UPDATE `SESSIONS` s
+SET s.`seats_taken` = (SELECT COUNT(*) FROM `PARTICIPATE` p WHERE p.`session_id` = s.`id`),
+    s.`updated_at` = s.`updated_at`;
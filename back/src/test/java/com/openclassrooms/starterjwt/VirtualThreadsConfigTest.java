@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsConfigTest {
+
+    @DisplayName("JUnit test for newVirtualThreadPerTaskExecutor running tasks on named virtual threads")
+    @Test
+    void givenJdkWithVirtualThreads_whenSubmit_thenRunOnVirtualThread() throws Exception {
+        // given
+        assumeTrue(virtualThreadsAvailable());
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("test-");
+
+        try {
+            // when
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // then
+            assertThat(thread.getName()).isEqualTo("test-0");
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("JUnit test for newVirtualThreadPerTaskExecutor on a JDK without virtual threads")
+    @Test
+    void givenJdkWithoutVirtualThreads_whenNewExecutor_thenThrowIllegalState() {
+        // given
+        assumeFalse(virtualThreadsAvailable());
+
+        // when & then
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> VirtualThreadsConfig.newVirtualThreadPerTaskExecutor("test-"));
+        assertThat(e.getMessage()).contains("JDK 21+");
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingExecutor;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,18 +18,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -50,6 +59,9 @@ class AuthControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @SpyBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
     private User user;
     private UserDetailsImpl userDetails;
     private JwtResponse jwtResponse;
@@ -98,12 +110,14 @@ class AuthControllerTest {
         given(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).willReturn(authentication);
         given(jwtUtils.generateJwtToken(authentication)).willReturn(jwtResponse.getToken());
         given(authentication.getPrincipal()).willReturn(userDetails);
-        given(userRepository.findByEmail(user.getEmail())).willReturn(java.util.Optional.of(user));
 
         // when
-        ResultActions response = mockMvc.perform(post("/api/auth/login")
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(loginRequest)));
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         // then
         response.andExpect(status().isOk())
@@ -129,13 +143,15 @@ class AuthControllerTest {
         signupRequest.setLastName("mana");
 
 
-        given(userRepository.existsByEmail("newuser@test.com")).willReturn(false);
         given(userRepository.save(any(User.class))).willReturn(user);
 
         // when
-        ResultActions response = mockMvc.perform(post("/api/auth/register")
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(signupRequest)));
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         // then
         response.andExpect(status().isOk())
@@ -153,16 +169,62 @@ class AuthControllerTest {
         signupRequest.setFirstName("Test");
         signupRequest.setLastName("User");
 
-        given(userRepository.existsByEmail("test@test.com")).willReturn(true);
+        given(userRepository.save(any(User.class))).willThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"));
 
         // when
-        ResultActions response = mockMvc.perform(post("/api/auth/register")
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(signupRequest)));
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         // then
         response.andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Error: Email is already taken!"))
                 .andDo(print());
     }
+
+    @DisplayName("JUnit test for register user when another constraint is violated")
+    @Test
+    public void givenOtherConstraintViolation_whenRegisterUser_thenRethrow() throws Exception {
+        // given
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("test@test.com");
+        signupRequest.setPassword("123456");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+
+        DataIntegrityViolationException violation =
+                new DataIntegrityViolationException("NULL not allowed for column \"FIRST_NAME\"");
+        given(userRepository.save(any(User.class))).willThrow(violation);
+
+        // when
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        assertThat(result.getAsyncResult()).isSameAs(violation);
+    }
+
+    @DisplayName("JUnit test for authenticate user when password hashing is saturated")
+    @Test
+    public void givenSaturatedHashingExecutor_whenAuthenticateUser_thenReturnTooManyRequests() throws Exception {
+        // given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@test.com");
+        loginRequest.setPassword("test_password");
+        willThrow(new TooManyRequestsException()).given(passwordHashingExecutor).submit(any());
+
+        // when
+        ResultActions response = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)));
+
+        // then
+        response.andExpect(status().isTooManyRequests());
+    }
 }
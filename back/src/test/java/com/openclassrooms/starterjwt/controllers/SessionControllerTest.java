@@ -2,31 +2,51 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionPatchRequest;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -85,6 +105,22 @@ class SessionControllerTest {
                 .andExpect(jsonPath("$.name").value(sessionDto.getName()));
     }
 
+    @DisplayName("JUnit test for findById operation with a current ETag")
+    @Test
+    void givenCurrentETag_whenFindById_thenReturnNotModifiedWithoutLoadingSession() throws Exception {
+        // given
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        long millis = updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        BDDMockito.given(sessionService.getLastModified(1L)).willReturn(updatedAt);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"session-1-" + millis + "\""))
+                // then
+                .andExpect(status().isNotModified());
+        verify(sessionService, times(0)).getById(anyLong());
+    }
+
     @DisplayName("JUnit test for findById operation - session not found")
     @Test
     void givenInvalidSessionId_whenFindById_thenReturnNotFound() throws Exception {
@@ -128,6 +164,94 @@ class SessionControllerTest {
                 .andExpect(jsonPath("$[0].name").value(sessionDto.getName()));
     }
 
+    @DisplayName("JUnit test for findAll operation with the summary view")
+    @Test
+    void givenSummaryView_whenFindAll_thenReturnSessionSummaries() throws Exception {
+        // given
+        List<SessionSummary> summaries = Collections.singletonList(
+                new SessionSummary(1L, "Test Session", session.getDate(), 1L, null));
+        BDDMockito.given(sessionService.findAllSummaries()).willReturn(summaries);
+        BDDMockito.given(sessionMapper.toSummaryDto(summaries)).willReturn(Collections.singletonList(
+                new SessionSummaryDto(1L, "Test Session", session.getDate(), 1L)));
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("view", "summary"))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].teacher_id").value(1L))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].users").doesNotExist());
+        verify(sessionService, times(0)).findAll();
+    }
+
+    @DisplayName("JUnit test for findAll operation with an unknown view")
+    @Test
+    void givenUnknownView_whenFindAll_thenReturnBadRequest() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("view", "full"))
+                // then
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnit test for findPage operation")
+    @Test
+    void givenLimit_whenFindAll_thenReturnSessionPageWithNextCursor() throws Exception {
+        // given
+        List<Session> sessions = new ArrayList<>();
+        sessions.add(session);
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        sessionDtos.add(sessionDto);
+        BDDMockito.given(sessionService.findPage(isNull(), eq(1), isNull(), isNull(), eq(1L)))
+                .willReturn(new SliceImpl<>(sessions, PageRequest.of(0, 1), true));
+        BDDMockito.given(sessionMapper.toDto(anyList())).willReturn(sessionDtos);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                        .param("limit", "1")
+                        .param("teacherId", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions[0].id").value(sessionDto.getId()))
+                .andExpect(jsonPath("$.next").isNotEmpty());
+    }
+
+    @DisplayName("JUnit test for findPage operation - cursor without limit")
+    @Test
+    void givenCursorWithoutLimit_whenFindAll_thenReturnDefaultSizedPage() throws Exception {
+        // given
+        String cursor = SessionCursor.of(session).encode();
+        List<Session> sessions = new ArrayList<>();
+        sessions.add(session);
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        sessionDtos.add(sessionDto);
+        BDDMockito.given(sessionService.findPage(any(SessionCursor.class), isNull(), isNull(), isNull(), isNull()))
+                .willReturn(new SliceImpl<>(sessions, PageRequest.of(0, SessionService.DEFAULT_PAGE_SIZE), false));
+        BDDMockito.given(sessionMapper.toDto(anyList())).willReturn(sessionDtos);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                        .param("cursor", cursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions[0].id").value(sessionDto.getId()))
+                .andExpect(jsonPath("$.next").isEmpty());
+    }
+
+    @DisplayName("JUnit test for findPage operation - invalid cursor")
+    @Test
+    void givenInvalidCursor_whenFindAll_thenReturnBadRequest() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                        .param("limit", "1")
+                        .param("cursor", "invalid")
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isBadRequest());
+    }
+
     @DisplayName("JUnit test for create session operation")
     @Test
     void givenSessionDto_whenCreate_thenReturnSessionDto() throws Exception {
@@ -146,6 +270,42 @@ class SessionControllerTest {
                 .andExpect(jsonPath("$.name").value(sessionDto.getName()));
     }
 
+    @DisplayName("JUnit test for create sessions in bulk from a recurrence")
+    @Test
+    void givenRecurrence_whenCreateAll_thenReturnIds() throws Exception {
+        // given
+        BDDMockito.given(sessionMapper.toEntity(anyList())).willReturn(Arrays.asList(session, session, session));
+        BDDMockito.given(sessionService.createAll(anyList())).willReturn(Arrays.asList(1L, 2L, 3L));
+        String request = "{\"recurrence\": {\"session\": " + objectMapper.writeValueAsString(sessionDto) + ", " +
+                "\"frequency\": \"DAILY\", \"count\": 3}}";
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids.length()").value(3));
+        verify(sessionMapper).toEntity(BDDMockito.<List<SessionDto>>argThat(dtos -> dtos.size() == 3));
+    }
+
+    @DisplayName("JUnit test for create sessions in bulk with both a list and a recurrence")
+    @Test
+    void givenSessionsAndRecurrence_whenCreateAll_thenReturnBadRequest() throws Exception {
+        // given
+        String session = objectMapper.writeValueAsString(sessionDto);
+        String request = "{\"sessions\": [" + session + "], " +
+                "\"recurrence\": {\"session\": " + session + ", \"frequency\": \"DAILY\", \"count\": 3}}";
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                // then
+                .andExpect(status().isBadRequest());
+        verify(sessionService, times(0)).createAll(anyList());
+    }
+
     @DisplayName("JUnit test for create session operation - invalid input")
     @Test
     void givenInvalidSessionDto_whenCreate_thenReturnBadRequest() throws Exception {
@@ -164,9 +324,12 @@ class SessionControllerTest {
     @Test
     void givenSessionDto_whenUpdate_thenReturnUpdatedSessionDto() throws Exception {
         // given
-        BDDMockito.given(sessionService.update(anyLong(), any(Session.class))).willReturn(session);
-        BDDMockito.given(sessionMapper.toEntity(any(SessionDto.class))).willReturn(session);
-        BDDMockito.given(sessionMapper.toDto(any(Session.class))).willReturn(sessionDto);
+        sessionDto.setVersion(2L);
+        BDDMockito.given(sessionService.update(eq(1L), eq(2L), any(), any())).willAnswer(invocation -> {
+            invocation.<Consumer<Session>>getArgument(2).accept(session);
+            return session;
+        });
+        BDDMockito.given(sessionMapper.toWrittenDto(any(Session.class))).willReturn(sessionDto);
 
         // when
         mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", 1L)
@@ -176,6 +339,65 @@ class SessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(sessionDto.getId()))
                 .andExpect(jsonPath("$.name").value(sessionDto.getName()));
+        verify(sessionMapper, times(1)).update(any(SessionDto.class), eq(session));
+    }
+
+    @DisplayName("JUnit test for update session operation - session modified since it was read")
+    @Test
+    void givenStaleVersion_whenUpdate_thenReturnConflict() throws Exception {
+        // given
+        sessionDto.setVersion(2L);
+        BDDMockito.given(sessionService.update(eq(1L), eq(2L), any(), any())).willThrow(new ConflictException("Session was modified"));
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                // then
+                .andExpect(status().isConflict());
+    }
+
+    @DisplayName("JUnit test for patch session operation")
+    @Test
+    void givenSessionPatch_whenPatch_thenReturnUpdatedSessionDto() throws Exception {
+        // given
+        SessionPatchRequest patch = new SessionPatchRequest();
+        patch.setName("Test Session");
+        patch.setVersion(2L);
+        BDDMockito.given(sessionService.update(eq(1L), eq(2L), any(), any())).willAnswer(invocation -> {
+            invocation.<Consumer<Session>>getArgument(2).accept(session);
+            return session;
+        });
+        BDDMockito.given(sessionMapper.toWrittenDto(any(Session.class))).willReturn(sessionDto);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/session/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(sessionDto.getName()));
+        verify(sessionMapper, times(1)).update(any(SessionPatchRequest.class), eq(session));
+    }
+
+    @DisplayName("JUnit test for patch session operation - missing version or blank name")
+    @Test
+    void givenInvalidSessionPatch_whenPatch_thenReturnBadRequest() throws Exception {
+        // given
+        SessionPatchRequest withoutVersion = new SessionPatchRequest();
+        withoutVersion.setName("Test Session");
+        SessionPatchRequest blankName = new SessionPatchRequest();
+        blankName.setName(" ");
+        blankName.setVersion(2L);
+
+        // when & then
+        for (SessionPatchRequest patch : Arrays.asList(withoutVersion, blankName)) {
+            mockMvc.perform(MockMvcRequestBuilders.patch("/api/session/{id}", 1L)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(patch)))
+                    .andExpect(status().isBadRequest());
+        }
+        verify(sessionService, times(0)).update(anyLong(), any(), any(), any());
     }
 
     @DisplayName("JUnit test for update session operation - invalid input")
@@ -304,4 +526,130 @@ class SessionControllerTest {
                 // then
                 .andExpect(status().isBadRequest());
     }
+
+    @DisplayName("JUnit test for join waitlist operation")
+    @Test
+    void givenSessionIdAndUserId_whenJoinWaitlist_thenReturnPosition() throws Exception {
+        // given
+        BDDMockito.given(sessionService.joinWaitlist(1L, 2L)).willReturn(3L);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/{id}/waitlist/{userId}", 1L, 2L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(3));
+    }
+
+    @DisplayName("JUnit test for join waitlist operation - NumberFormatException")
+    @Test
+    void givenInvalidSessionIdFormat_whenJoinWaitlist_thenReturnBadRequest() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/{id}/waitlist/{userId}", "invalid", 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnit test for get waitlist position operation")
+    @Test
+    void givenSessionIdAndUserId_whenGetWaitlistPosition_thenReturnPosition() throws Exception {
+        // given
+        BDDMockito.given(sessionService.getWaitlistPosition(1L, 2L)).willReturn(1L);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}/waitlist/{userId}", 1L, 2L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(1));
+    }
+
+    @DisplayName("JUnit test for leave waitlist operation")
+    @Test
+    void givenSessionIdAndUserId_whenLeaveWaitlist_thenReturnOk() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/{id}/waitlist/{userId}", 1L, 2L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isOk());
+
+        verify(sessionService, times(1)).leaveWaitlist(1L, 2L);
+    }
+
+    @DisplayName("JUnit test for leave waitlist operation - NumberFormatException for userId")
+    @Test
+    void givenInvalidUserIdFormat_whenLeaveWaitlist_thenReturnBadRequest() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/{id}/waitlist/{userId}", 1L, "invalid")
+                        .contentType(MediaType.APPLICATION_JSON))
+                // then
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnit test for export operation as NDJSON")
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenExport_thenStreamOneSessionPerLine() throws Exception {
+        // given
+        List<Session> sessions = new ArrayList<>();
+        sessions.add(session);
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        sessionDtos.add(sessionDto);
+        sessionDtos.add(sessionDto);
+        BDDMockito.willAnswer(invocation -> {
+            ((Consumer<List<Session>>) invocation.getArgument(0)).accept(sessions);
+            return null;
+        }).given(sessionService).forEachChunk(any());
+        BDDMockito.given(sessionMapper.toDto(sessions)).willReturn(sessionDtos);
+
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SessionController.APPLICATION_NDJSON));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], SessionDto.class).getName()).isEqualTo(sessionDto.getName());
+    }
+
+    @DisplayName("JUnit test for export operation as a JSON array")
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenJsonFormat_whenExport_thenStreamJsonArray() throws Exception {
+        // given
+        List<Session> sessions = new ArrayList<>();
+        sessions.add(session);
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        sessionDtos.add(sessionDto);
+        BDDMockito.willAnswer(invocation -> {
+            ((Consumer<List<Session>>) invocation.getArgument(0)).accept(sessions);
+            return null;
+        }).given(sessionService).forEachChunk(any());
+        BDDMockito.given(sessionMapper.toDto(sessions)).willReturn(sessionDtos);
+
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export").param("format", "json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(sessionDto.getId()));
+    }
+
+    @DisplayName("JUnit test for export operation with an unknown format")
+    @Test
+    void givenUnknownFormat_whenExport_thenReturnBadRequest() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export").param("format", "csv"))
+                // then
+                .andExpect(status().isBadRequest());
+    }
 }
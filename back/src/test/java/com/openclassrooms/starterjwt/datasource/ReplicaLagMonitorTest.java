@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaLagMonitorTest {
+    private static final Instant NOW = Instant.parse("2026-01-05T10:00:00Z");
+
+    private static final String HEARTBEAT = "SELECT beat_at FROM REPLICA_HEARTBEAT WHERE id = 1";
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private Replica fresh;
+
+    private Replica missing;
+
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primaryDataSource = heartbeatDatabase("lag-primary");
+        DataSource replicaDataSource = heartbeatDatabase("lag-replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        fresh = new Replica("replica-1", replicaDataSource);
+        missing = new Replica("replica-2", new DriverManagerDataSource("jdbc:h2:mem:lag-missing;IFEXISTS=TRUE", "sa", ""));
+        monitor = new ReplicaLagMonitor(primaryDataSource, Arrays.asList(fresh, missing),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.execute("DROP TABLE REPLICA_HEARTBEAT");
+        replica.execute("DROP TABLE REPLICA_HEARTBEAT");
+    }
+
+    @DisplayName("JUnit test for check writing the heartbeat on the primary only")
+    @Test
+    void givenReplicas_whenCheck_thenHeartbeatWrittenOnPrimary() {
+        // when
+        monitor.check();
+
+        // then
+        assertThat(primary.queryForObject(HEARTBEAT, Timestamp.class).toInstant()).isEqualTo(NOW);
+        assertThat(replica.queryForObject(HEARTBEAT, Timestamp.class).toInstant()).isBefore(NOW);
+    }
+
+    @DisplayName("JUnit test for check measuring the age of each replica's heartbeat")
+    @Test
+    void givenReplicatedHeartbeat_whenCheck_thenLagIsItsAge() {
+        // given
+        replica.update("UPDATE REPLICA_HEARTBEAT SET beat_at = ?", Timestamp.from(NOW.minusMillis(1500)));
+
+        // when
+        monitor.check();
+
+        // then
+        assertThat(fresh.getLagMs()).isEqualTo(1500);
+        assertThat(fresh.isWithin(1500)).isTrue();
+        assertThat(fresh.isWithin(1499)).isFalse();
+    }
+
+    @DisplayName("JUnit test for check dropping the lag of a replica it cannot read")
+    @Test
+    void givenUnreachableReplica_whenCheck_thenNoLag() {
+        // given
+        missing.setLagMs(0L);
+
+        // when
+        monitor.check();
+
+        // then
+        assertThat(missing.getLagMs()).isNull();
+        assertThat(missing.isWithin(Long.MAX_VALUE)).isFalse();
+    }
+
+    private static DataSource heartbeatDatabase(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE REPLICA_HEARTBEAT (id INT PRIMARY KEY, beat_at TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO REPLICA_HEARTBEAT (id, beat_at) VALUES (1, ?)",
+                Timestamp.from(NOW.minusSeconds(60)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,121 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+    private Replica first;
+
+    private Replica second;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        first = new Replica("replica-1", mock(DataSource.class));
+        second = new Replica("replica-2", mock(DataSource.class));
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), Arrays.asList(first, second), 1000);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @DisplayName("JUnit test for a read-write transaction routed to the primary")
+    @Test
+    void givenReadWriteTransaction_whenRoute_thenPrimary() {
+        // given
+        first.setLagMs(0L);
+
+        // when
+        Object pool = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(pool).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @DisplayName("JUnit test for read-only transactions spread over the replicas in turn")
+    @Test
+    void givenReadOnlyTransaction_whenRoute_thenReplicasRoundRobin() {
+        // given
+        first.setLagMs(0L);
+        second.setLagMs(1000L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when & then
+        assertThat(Arrays.asList(routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey()))
+                .containsExactly("replica-1", "replica-2", "replica-1");
+    }
+
+    @DisplayName("JUnit test for a read-only transaction skipping a lagging or unchecked replica")
+    @Test
+    void givenLaggingReplica_whenRoute_thenOtherReplica() {
+        // given
+        first.setLagMs(1001L);
+        second.setLagMs(10L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when & then
+        assertThat(Arrays.asList(routingDataSource.determineCurrentLookupKey(),
+                routingDataSource.determineCurrentLookupKey()))
+                .containsExactly("replica-2", "replica-2");
+    }
+
+    @DisplayName("JUnit test for a read-only transaction falling back to the primary without a fit replica")
+    @Test
+    void givenNoFitReplica_whenRoute_thenPrimary() {
+        // given
+        first.setLagMs(5000L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        Object pool = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(pool).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @DisplayName("JUnit test for the connection, lag and availability metrics of each pool")
+    @Test
+    void givenMeterRegistry_whenRoute_thenMetricsPerPool() {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(registry);
+        first.setLagMs(250L);
+
+        // when
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.determineCurrentLookupKey();
+        routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(registry.get("yoga.datasource.connections").tag("pool", "primary").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("yoga.datasource.connections").tag("pool", "replica-1").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("yoga.datasource.replica.lag").tag("pool", "replica-1").gauge().value())
+                .isEqualTo(0.25);
+        assertThat(registry.get("yoga.datasource.replica.lag").tag("pool", "replica-2").gauge().value())
+                .isNaN();
+        assertThat(registry.get("yoga.datasource.replica.available").tag("pool", "replica-1").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("yoga.datasource.replica.available").tag("pool", "replica-2").gauge().value())
+                .isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "classpath:application-test.properties")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class ActuatorIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DisplayName("JUnit test for the Prometheus endpoint")
+    @Test
+    void givenRejectedRequest_whenScrapePrometheus_thenExposeApplicationMetrics() throws Exception {
+        // given
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("Authorization", "Bearer invalid.token"))
+                .andExpect(status().isUnauthorized());
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus").with(user("scraper")))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("jwt_authentication_seconds_count{outcome=\"invalid\"")))
+                .andExpect(content().string(containsString("jwt_validation_failures_total{reason=\"malformed\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_sessions_open_total")));
+    }
+
+    @DisplayName("JUnit test for the Prometheus endpoint without authentication")
+    @Test
+    void givenNoToken_whenScrapePrometheus_thenReturnUnauthorized() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                // then
+                .andExpect(status().isUnauthorized());
+    }
+
+    @DisplayName("JUnit test for the health endpoint without authentication")
+    @Test
+    void givenNoToken_whenGetHealth_thenReturnOk() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                // then
+                .andExpect(status().isOk());
+    }
+
+    @DisplayName("JUnit test for the metrics endpoint without authentication")
+    @Test
+    void givenNoToken_whenGetMetrics_thenReturnUnauthorized() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+                // then
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -5,24 +5,41 @@ import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -31,9 +48,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureJsonTesters
 @AutoConfigureMockMvc()
 public class AuthControllerIntegrationTest {
+    private static final int CONCURRENT_REQUESTS = 8;
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -66,9 +91,12 @@ public class AuthControllerIntegrationTest {
 
 
         // when
-        ResultActions response = mockMvc.perform(post("/api/auth/login")
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(loginRequest)));
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         // then
         response.andExpect(status().isOk())
@@ -94,9 +122,12 @@ public class AuthControllerIntegrationTest {
         signupRequest.setLastName("User");
 
         // when
-        ResultActions response = mockMvc.perform(post("/api/auth/register")
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(signupRequest)));
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
 
         // then
         response.andExpect(status().isOk())
@@ -104,4 +135,133 @@ public class AuthControllerIntegrationTest {
                 .andDo(print());
     }
 
+    @DisplayName("JUnit test for authenticate user rehashing a password stored with a lower cost")
+    @Test
+    public void givenPasswordHashedWithLowerCost_whenAuthenticateUser_thenRehashPassword() throws Exception {
+        // given
+        User user = User.builder()
+                .lastName("test_lastname")
+                .firstName("test_firstname")
+                .password(new BCryptPasswordEncoder(4).encode("test_password"))
+                .admin(false)
+                .email("email@email.com")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("email@email.com");
+        loginRequest.setPassword("test_password");
+
+        // when
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        // then
+        String storedPassword = userRepository.findByEmail("email@email.com").get().getPassword();
+        assertThat(storedPassword).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("test_password", storedPassword)).isTrue();
+    }
+
+    @DisplayName("JUnit test for authenticate user with a wrong password")
+    @Test
+    public void givenWrongPassword_whenAuthenticateUser_thenReturnUnauthorized() throws Exception {
+        // given
+        userRepository.save(User.builder()
+                .lastName("test_lastname")
+                .firstName("test_firstname")
+                .password(passwordEncoder.encode("test_password"))
+                .admin(false)
+                .email("email@email.com")
+                .build());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("email@email.com");
+        loginRequest.setPassword("wrong_password");
+
+        // when
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isUnauthorized());
+    }
+
+    @DisplayName("JUnit test for concurrent logins running one query each")
+    @Test
+    public void givenConcurrentLogins_whenAuthenticateUser_thenRunOneQueryPerLogin() throws Exception {
+        // given
+        userRepository.save(User.builder()
+                .lastName("test_lastname")
+                .firstName("test_firstname")
+                .password(passwordEncoder.encode("test_password"))
+                .admin(true)
+                .email("email@email.com")
+                .build());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("email@email.com");
+        loginRequest.setPassword("test_password");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        List<ResponseEntity<String>> responses = concurrently(
+                () -> restTemplate.postForEntity("/api/auth/login", loginRequest, String.class));
+
+        // then
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).contains("\"admin\":true");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(CONCURRENT_REQUESTS);
+    }
+
+    @DisplayName("JUnit test for concurrent registrations with the same email")
+    @Test
+    public void givenConcurrentRegistrationsWithSameEmail_whenRegisterUser_thenOnlyOneSucceeds() throws Exception {
+        // given
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("test@test.com");
+        signupRequest.setPassword("test_password");
+        signupRequest.setFirstName("Test");
+        signupRequest.setLastName("User");
+
+        // when
+        List<ResponseEntity<String>> responses = concurrently(
+                () -> restTemplate.postForEntity("/api/auth/register", signupRequest, String.class));
+
+        // then
+        assertThat(responses).filteredOn(response -> response.getStatusCode() == HttpStatus.OK).hasSize(1);
+        assertThat(responses).filteredOn(response -> response.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .hasSize(CONCURRENT_REQUESTS - 1)
+                .allSatisfy(response -> assertThat(response.getBody()).contains("Error: Email is already taken!"));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    private <T> List<T> concurrently(Callable<T> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Callable<T>> requests = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                requests.add(request);
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(requests)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
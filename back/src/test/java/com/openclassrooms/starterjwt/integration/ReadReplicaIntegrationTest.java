@@ -0,0 +1,219 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.openclassrooms.starterjwt.datasource.ReplicaLagMonitor;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the application against two embedded databases built by the Flyway migrations, a primary and a
+ * replica. Nothing replicates between them: rows written to one database only show which one a query ran on,
+ * and the replica heartbeat is written by hand to set its lag.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "oc.app.readReplicas.enabled=true",
+        "oc.app.readReplicas.urls=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "oc.app.readReplicas.maxLagMs=5000",
+        "oc.app.readReplicas.checkIntervalMs=0",
+        "spring.datasource.url=" + ReadReplicaIntegrationTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.cache.type=none",
+        "spring.jpa.show-sql=false"
+})
+public class ReadReplicaIntegrationTest {
+    static final String PRIMARY_URL =
+            "jdbc:h2:mem:replication-primary;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:replication-replica;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        replica.update("INSERT INTO TEACHERS (id, first_name, last_name) VALUES (100, 'Replica', 'Only')");
+        replica.update("INSERT INTO USERS (id, email, first_name, last_name, password, admin) " +
+                "VALUES (100, 'replica@test.com', 'Replica', 'Only', 'password', false)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.getCache().evictAll();
+        primary.update("DELETE FROM PARTICIPATE");
+        primary.update("DELETE FROM SESSIONS");
+        replica.update("DELETE FROM SESSIONS");
+        replica.update("DELETE FROM TEACHERS WHERE id = 100");
+        replica.update("DELETE FROM USERS WHERE id = 100");
+    }
+
+    @DisplayName("JUnit test for read-only reads served by a replica within the allowed lag")
+    @Test
+    void givenFreshReplica_whenReadOnlyRead_thenReadFromReplica() {
+        // given
+        replicateHeartbeat(Instant.now());
+
+        // when
+        LocalDateTime lastModified = teacherService.getLastModified(100L);
+
+        // then
+        assertThat(lastModified).isNotNull();
+        assertThat(userDetailsService.loadUserByUsername("replica@test.com").getUsername())
+                .isEqualTo("replica@test.com");
+        assertThat(meterRegistry.get("yoga.datasource.connections").tag("pool", "replica-1").counter().count())
+                .isPositive();
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "replica-1").gauge()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+    }
+
+    @DisplayName("JUnit test for writes sent to the primary while a replica is fit for reads")
+    @Test
+    void givenFreshReplica_whenCreate_thenWrittenOnPrimary() {
+        // given
+        replicateHeartbeat(Instant.now());
+
+        // when
+        sessionService.create(Session.builder()
+                .name("Primary Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(Teacher.builder().id(1L).build())
+                .build());
+
+        // then
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM SESSIONS", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM SESSIONS", Integer.class)).isZero();
+    }
+
+    @DisplayName("JUnit test for read-only reads falling back to the primary once the replica lags too much")
+    @Test
+    void givenLaggingReplica_whenReadOnlyRead_thenReadFromPrimary() {
+        // given
+        replicateHeartbeat(Instant.now().minusSeconds(60));
+
+        // when
+        LocalDateTime lastModified = teacherService.getLastModified(100L);
+
+        // then
+        assertThat(lastModified).isNull();
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("replica@test.com"));
+        assertThat(meterRegistry.get("yoga.datasource.replica.available").tag("pool", "replica-1").gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("yoga.datasource.replica.lag").tag("pool", "replica-1").gauge().value())
+                .isGreaterThanOrEqualTo(60);
+    }
+
+    @DisplayName("JUnit test for the cached teacher reads served by the primary while a replica is fit for reads")
+    @Test
+    void givenFreshReplica_whenFindTeacherToCache_thenReadFromPrimary() {
+        // given
+        replicateHeartbeat(Instant.now());
+
+        // when
+        Teacher replicaOnly = teacherService.findById(100L);
+
+        // then
+        assertThat(replicaOnly).isNull();
+        assertThat(teacherService.findAll()).extracting(Teacher::getId).doesNotContain(100L);
+    }
+
+    @DisplayName("JUnit test for a session read from a replica not being put in the second-level cache")
+    @Test
+    void givenFreshReplica_whenReadOnlyReadSession_thenNotCached() {
+        // given
+        replicateHeartbeat(Instant.now());
+        insertSession(primary, "Primary Session");
+        insertSession(replica, "Replica Session");
+
+        // when
+        Session session = sessionService.getById(200L);
+
+        // then
+        assertThat(session.getName()).isEqualTo("Replica Session");
+        assertThat(entityManagerFactory.getCache().contains(Session.class, 200L)).isFalse();
+    }
+
+    @DisplayName("JUnit test for the participants of an updated session mapped from the primary")
+    @Test
+    void givenReplicaWithoutParticipant_whenMapUpdatedSession_thenParticipantsFromPrimary() {
+        // given
+        replicateHeartbeat(Instant.now());
+        insertSession(primary, "Primary Session");
+        insertSession(replica, "Primary Session");
+        primary.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (200, 1)");
+
+        // when
+        Session updated = sessionService.update(200L, null, session -> session.setName("Renamed Session"), null);
+
+        // then
+        assertThat(sessionMapper.toWrittenDto(updated).getUsers()).containsExactly(1L);
+        assertThat(sessionMapper.toDto(updated).getUsers()).isEmpty();
+    }
+
+    private static void insertSession(JdbcTemplate database, String name) {
+        database.update("INSERT INTO SESSIONS (id, name, description, date, teacher_id) " +
+                "VALUES (200, ?, 'description', CURRENT_TIMESTAMP, 1)", name);
+    }
+
+    private void replicateHeartbeat(Instant beatAt) {
+        replica.update("UPDATE REPLICA_HEARTBEAT SET beat_at = ? WHERE id = 1", Timestamp.from(beatAt));
+        replicaLagMonitor.check();
+    }
+}
@@ -0,0 +1,162 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the reactive read path against an embedded database, no MySQL needed, as the public schedule screen
+ * does: through the security filters without a token.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+public class ScheduleControllerIntegrationTest {
+    private static final int SESSIONS = 2 * SessionService.MAX_PAGE_SIZE + 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Teacher teacher;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("teacher_firstname")
+                .lastName("teacher_lastname")
+                .build());
+        user = userRepository.save(User.builder()
+                .email("test@test.com")
+                .firstName("test_firstname")
+                .lastName("test_lastname")
+                .password("test_password")
+                .admin(false)
+                .build());
+
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date(i * 60_000L))
+                    .description("Test Description")
+                    .teacher(teacher)
+                    .users(i == 0 ? Collections.singletonList(user) : null)
+                    .build());
+        }
+        sessionRepository.saveAll(sessions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @DisplayName("JUnit test for findSessions streaming every page as NDJSON")
+    @Test
+    void givenSeveralPagesOfSessions_whenFindSessionsAsNdjson_thenStreamEverySessionInOrder() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/api/schedule/session").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        // then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(SESSIONS);
+        SessionDto first = objectMapper.readValue(lines[0], SessionDto.class);
+        assertThat(first.getName()).isEqualTo("Session 0");
+        assertThat(first.getTeacher_id()).isEqualTo(teacher.getId());
+        assertThat(first.getUsers()).containsExactly(user.getId());
+        assertThat(objectMapper.readValue(lines[SESSIONS - 1], SessionDto.class).getName())
+                .isEqualTo("Session " + (SESSIONS - 1));
+    }
+
+    @DisplayName("JUnit test for findSessions as a JSON array filtered by date")
+    @Test
+    void givenDateRange_whenFindSessionsAsJson_thenReturnMatchingSessions() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/api/schedule/session")
+                        .param("from", "1970-01-01T00:01:00.000Z")
+                        .param("to", "1970-01-01T00:03:00.000Z")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Session 1"))
+                .andExpect(jsonPath("$[1].name").value("Session 2"));
+    }
+
+    @DisplayName("JUnit test for findTeachers")
+    @Test
+    void givenTeacher_whenFindTeachers_thenReturnTeacherDtos() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/api/schedule/teacher").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(teacher.getId()))
+                .andExpect(jsonPath("$[0].lastName").value("teacher_lastname"));
+    }
+}
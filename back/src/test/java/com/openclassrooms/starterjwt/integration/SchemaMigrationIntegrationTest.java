@@ -0,0 +1,146 @@
+package com.openclassrooms.starterjwt.integration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the schema from the Flyway migrations on H2 in MySQL mode and lets Hibernate validate it
+ * against the entities: the context only starts if both agree.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false"
+})
+public class SchemaMigrationIntegrationTest {
+    private static final String EXISTING_DATABASE_URL =
+            "jdbc:h2:mem:existing;MODE=MySQL;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DisplayName("JUnit test for the migrations creating the schema and seed data on an empty database")
+    @Test
+    void givenEmptyDatabase_whenStart_thenEveryMigrationIsApplied() {
+        // when
+        MigrationInfo[] applied = flyway.info().applied();
+
+        // then
+        assertThat(Arrays.stream(applied).map(info -> info.getVersion().getVersion()))
+                .containsExactly("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13");
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM USERS WHERE admin = true", String.class))
+                .isEqualTo("yoga@studio.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TEACHERS", Integer.class)).isEqualTo(2);
+    }
+
+    @DisplayName("JUnit test for the indexes backing the listing, teacher, participation, waitlist and login queries")
+    @Test
+    void givenMigratedDatabase_whenReadIndexes_thenEveryQueryPatternIsIndexed() throws SQLException {
+        // when & then
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            assertThat(indexedColumns(metaData, "SESSIONS"))
+                    .contains("date,id", "teacher_id,date,id");
+            assertThat(indexedColumns(metaData, "PARTICIPATE"))
+                    .contains("session_id,user_id", "user_id");
+            assertThat(indexedColumns(metaData, "USERS"))
+                    .contains("email");
+            assertThat(indexedColumns(metaData, "WAITLIST"))
+                    .contains("session_id,ticket", "session_id,user_id");
+        }
+    }
+
+    @DisplayName("JUnit test for a database created by script.sql being baselined, its bookings deduplicated and counted and its session ids continued")
+    @Test
+    void givenDatabaseCreatedByScript_whenMigrate_thenOnlyLaterMigrationsAreApplied() {
+        // given
+        DataSource existing = new DriverManagerDataSource(EXISTING_DATABASE_URL, "sa", "");
+        JdbcTemplate existingTemplate = new JdbcTemplate(existing);
+        existingTemplate.execute((Connection connection) -> {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+            return null;
+        });
+        existingTemplate.update("INSERT INTO SESSIONS (id, name, description, date, teacher_id) " +
+                "VALUES (1, 'Morning flow', 'description', CURRENT_TIMESTAMP, 1)");
+        existingTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (1, 1)");
+        existingTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (1, 1)");
+
+        // when
+        MigrateResult result = Flyway.configure()
+                .dataSource(existing)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        // then
+        assertThat(result.migrations.stream().map(migration -> migration.version))
+                .containsExactly("2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13");
+        assertThat(existingTemplate.queryForObject("SELECT COUNT(*) FROM USERS", Integer.class)).isEqualTo(1);
+        assertThat(existingTemplate.queryForObject("SELECT COUNT(*) FROM PARTICIPATE", Integer.class)).isEqualTo(1);
+        assertThat(existingTemplate.queryForObject("SELECT seats_taken FROM SESSIONS WHERE id = 1", Integer.class))
+                .isEqualTo(1);
+        assertThat(existingTemplate.queryForObject("SELECT next_val FROM ID_GENERATORS WHERE name = 'SESSIONS'", Long.class))
+                .isEqualTo(2L);
+        assertThat(existingTemplate.queryForObject("SELECT NUMERIC_SCALE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'SESSIONS' AND COLUMN_NAME = 'UPDATED_AT'", Integer.class))
+                .isEqualTo(6);
+    }
+
+    /**
+     * @return the columns of each index of {@code table}, comma separated in key order
+     */
+    private static List<String> indexedColumns(DatabaseMetaData metaData, String table) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        String current = null;
+        try (ResultSet rows = metaData.getIndexInfo(null, null, table, false, false)) {
+            while (rows.next()) {
+                String index = rows.getString("INDEX_NAME");
+                if (!index.equals(current) && current != null) {
+                    indexes.add(String.join(",", columns));
+                    columns.clear();
+                }
+                current = index;
+                columns.add(rows.getString("COLUMN_NAME"));
+            }
+        }
+        if (current != null) {
+            indexes.add(String.join(",", columns));
+        }
+        return indexes.stream().map(String::toLowerCase).collect(Collectors.toList());
+    }
+}
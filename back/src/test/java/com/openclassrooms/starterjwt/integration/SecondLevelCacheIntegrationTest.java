@@ -0,0 +1,274 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads through the second-level cache and checks that every write of {@link SessionService} is visible
+ * on the next read, against an embedded database in MySQL mode for the booking statements.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:second-level-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+public class SecondLevelCacheIntegrationTest {
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private Teacher teacher;
+
+    private User user;
+
+    private User other;
+
+    private Session session;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("teacher_firstname")
+                .lastName("teacher_lastname")
+                .build());
+        user = userRepository.save(user("user@test.com"));
+        other = userRepository.save(user("other@test.com"));
+        session = sessionService.create(Session.builder()
+                .name("Cached Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(teacher)
+                .capacity(10)
+                .users(new ArrayList<>(Collections.singletonList(user)))
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @DisplayName("JUnit test for a session and its participants read a second time from the cache")
+    @Test
+    void givenSessionRead_whenReadAgain_thenNoStatement() {
+        // given
+        participantIds(session.getId());
+        long statements = statistics.getPrepareStatementCount();
+
+        // when
+        List<Long> participantIds = participantIds(session.getId());
+
+        // then
+        assertThat(participantIds).containsExactly(user.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(Session.CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(Session.USERS_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(Teacher.CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(User.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for update replacing the name and participants of a cached session")
+    @Test
+    void givenCachedSession_whenUpdate_thenReadUpdatedSession() {
+        // given
+        participantIds(session.getId());
+
+        // when
+        sessionService.update(session.getId(), null, current -> current.setName("Renamed Session"),
+                Collections.singletonList(other));
+
+        // then
+        assertThat(sessionService.getById(session.getId()).getName()).isEqualTo("Renamed Session");
+        assertThat(participantIds(session.getId())).containsExactly(other.getId());
+    }
+
+    @DisplayName("JUnit test for participate adding a user and a seat to a cached session")
+    @Test
+    void givenCachedSession_whenParticipate_thenReadNewParticipantAndSeat() {
+        // given
+        participantIds(session.getId());
+
+        // when
+        sessionService.participate(session.getId(), other.getId());
+
+        // then
+        assertThat(participantIds(session.getId())).containsExactlyInAnyOrder(user.getId(), other.getId());
+        assertThat(sessionService.getById(session.getId()).getSeatsTaken()).isEqualTo(2);
+    }
+
+    @DisplayName("JUnit test for no longer participate removing a user and a seat from a cached session")
+    @Test
+    void givenCachedSession_whenNoLongerParticipate_thenReadRemainingParticipants() {
+        // given
+        participantIds(session.getId());
+
+        // when
+        sessionService.noLongerParticipate(session.getId(), user.getId());
+
+        // then
+        assertThat(participantIds(session.getId())).isEmpty();
+        assertThat(sessionService.getById(session.getId()).getSeatsTaken()).isZero();
+    }
+
+    @DisplayName("JUnit test for delete removing a cached session")
+    @Test
+    void givenCachedSession_whenDelete_thenNotFound() {
+        // given
+        participantIds(session.getId());
+
+        // when
+        sessionService.delete(session.getId());
+
+        // then
+        assertThat(sessionService.getById(session.getId())).isNull();
+    }
+
+    @DisplayName("JUnit test for participate keeping the cached teachers and users")
+    @Test
+    void givenCachedTeacherAndUser_whenParticipate_thenStillCached() {
+        // given
+        participantIds(session.getId());
+
+        // when
+        sessionService.participate(session.getId(), other.getId());
+
+        // then
+        assertThat(entityManagerFactory.getCache().contains(Teacher.class, teacher.getId())).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+    }
+
+    @DisplayName("JUnit test for the seat and waitlist updates evicting only the session they change")
+    @Test
+    void givenOtherCachedSession_whenParticipateAndJoinWaitlist_thenOtherStillCached() {
+        // given
+        Session full = sessionService.create(Session.builder()
+                .name("Full Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(teacher)
+                .capacity(1)
+                .users(new ArrayList<>(Collections.singletonList(user)))
+                .build());
+        participantIds(session.getId());
+        participantIds(full.getId());
+
+        // when
+        sessionService.participate(session.getId(), other.getId());
+        boolean fullCachedAfterParticipate = entityManagerFactory.getCache().contains(Session.class, full.getId());
+        participantIds(session.getId());
+        sessionService.joinWaitlist(full.getId(), other.getId());
+
+        // then
+        assertThat(fullCachedAfterParticipate).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Session.class, session.getId())).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Session.class, full.getId())).isFalse();
+        assertThat(sessionService.getById(session.getId()).getSeatsTaken()).isEqualTo(2);
+        assertThat(sessionService.getById(full.getId()).getWaitlistTickets()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for findByEmail answered from the query cache until a user changes")
+    @Test
+    void givenCachedQuery_whenFindByEmail_thenHitUntilUserSaved() {
+        // given
+        userRepository.findByEmail(user.getEmail());
+
+        // when
+        userRepository.findByEmail(user.getEmail());
+        userRepository.save(other.setFirstName("renamed"));
+        User found = userRepository.findByEmail(user.getEmail()).orElse(null);
+
+        // then
+        assertThat(found).isEqualTo(user);
+        assertThat(statistics.getQueryRegionStatistics(UserRepository.FIND_BY_EMAIL_CACHE_REGION).getHitCount())
+                .isEqualTo(1);
+        assertThat(statistics.getQueryRegionStatistics(UserRepository.FIND_BY_EMAIL_CACHE_REGION).getMissCount())
+                .isEqualTo(2);
+    }
+
+    @DisplayName("JUnit test for the hit and miss metrics of every entity and collection region")
+    @Test
+    void givenRegions_whenReadMetrics_thenEveryRegionIsMeasured() {
+        // when
+        participantIds(session.getId());
+        participantIds(session.getId());
+
+        // then
+        for (String region : new String[]{Session.CACHE_REGION, Session.USERS_CACHE_REGION,
+                Teacher.CACHE_REGION, User.CACHE_REGION}) {
+            assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                    .tags("region", region, "result", "hit")
+                    .functionCounter().count()).as(region).isEqualTo(1);
+        }
+    }
+
+    private List<Long> participantIds(Long id) {
+        return transactionTemplate.execute(status -> sessionRepository.findById(id)
+                .map(found -> found.getUsers().stream().map(User::getId).collect(Collectors.toList()))
+                .orElse(null));
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .email(email)
+                .firstName("test_firstname")
+                .lastName("test_lastname")
+                .password("test_password")
+                .admin(false)
+                .build();
+    }
+}
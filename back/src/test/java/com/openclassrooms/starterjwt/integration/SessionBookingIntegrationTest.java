@@ -0,0 +1,279 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Books one session with hundreds of simultaneous HTTP requests and checks the seat count against the
+ * join table: no participant beyond the capacity, no booking lost below it, and no waitlist position
+ * handed out twice.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:cleanup.sql")
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class SessionBookingIntegrationTest {
+    private static final int CONCURRENT_REQUESTS = 500;
+
+    private static final int CAPACITY = 20;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    private Teacher teacher;
+
+    private List<User> users;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("teacher_firstname")
+                .lastName("teacher_lastname")
+                .build());
+
+        List<User> newUsers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            newUsers.add(User.builder()
+                    .email("user" + i + "@test.com")
+                    .firstName("test_firstname")
+                    .lastName("test_lastname")
+                    .password("test_password")
+                    .admin(false)
+                    .build());
+        }
+        users = userRepository.saveAll(newUsers);
+
+        User caller = users.get(0);
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .id(caller.getId())
+                .username(caller.getEmail())
+                .firstName(caller.getFirstName())
+                .lastName(caller.getLastName())
+                .admin(false)
+                .build();
+        headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null)));
+    }
+
+    @DisplayName("Concurrent bookings beyond the capacity are refused with 409 and never over-book")
+    @Test
+    void givenMoreRequestsThanSeats_whenParticipateConcurrently_thenAdmitExactlyCapacity() throws Exception {
+        // given
+        Session session = sessionWithCapacity(CAPACITY);
+
+        // when
+        List<HttpStatus> statuses = concurrently(users.stream()
+                .map(user -> participate(session, user))
+                .collect(Collectors.toList()));
+
+        // then
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(CAPACITY);
+        assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(CONCURRENT_REQUESTS - CAPACITY);
+        assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(CAPACITY);
+        assertThat(seatsTaken(session)).isEqualTo(CAPACITY);
+    }
+
+    @DisplayName("Concurrent bookings within the capacity are all kept")
+    @Test
+    void givenOneSeatPerRequest_whenParticipateConcurrently_thenNoBookingIsLost() throws Exception {
+        // given
+        Session session = sessionWithCapacity(CONCURRENT_REQUESTS);
+
+        // when
+        List<HttpStatus> statuses = concurrently(users.stream()
+                .map(user -> participate(session, user))
+                .collect(Collectors.toList()));
+
+        // then
+        assertThat(statuses).containsOnly(HttpStatus.OK);
+        assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(CONCURRENT_REQUESTS);
+        assertThat(seatsTaken(session)).isEqualTo(CONCURRENT_REQUESTS);
+    }
+
+    @DisplayName("Concurrent bookings of the same user take a single seat")
+    @Test
+    void givenSameUser_whenParticipateConcurrently_thenBookOnce() throws Exception {
+        // given
+        Session session = sessionWithCapacity(CAPACITY);
+        Callable<HttpStatus> request = participate(session, users.get(0));
+
+        // when
+        List<HttpStatus> statuses = concurrently(Collections.nCopies(CONCURRENT_REQUESTS, request));
+
+        // then
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(1);
+        assertThat(statuses).filteredOn(HttpStatus.BAD_REQUEST::equals).hasSize(CONCURRENT_REQUESTS - 1);
+        assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(1);
+        assertThat(seatsTaken(session)).isEqualTo(1);
+    }
+
+    @DisplayName("Concurrent waitlist joins fill the seats then queue everybody else at distinct positions")
+    @Test
+    void givenMoreRequestsThanSeats_whenJoinWaitlistConcurrently_thenQueueTheRestInOrder() throws Exception {
+        // given
+        Session session = sessionWithCapacity(CAPACITY);
+
+        // when
+        List<Long> positions = concurrently(users.stream()
+                .map(user -> joinWaitlist(session, user))
+                .collect(Collectors.toList()));
+
+        // then
+        assertThat(positions).filteredOn(position -> position == 0).hasSize(CAPACITY);
+        assertThat(positions).filteredOn(position -> position > 0)
+                .containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, CONCURRENT_REQUESTS - CAPACITY)
+                        .boxed().collect(Collectors.toList()));
+        assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(CAPACITY);
+        assertThat(waitlistRepository.count()).isEqualTo(CONCURRENT_REQUESTS - CAPACITY);
+    }
+
+    @DisplayName("Concurrent cancellations hand every seat to the waitlist in arrival order")
+    @Test
+    void givenWaitlist_whenNoLongerParticipateConcurrently_thenPromoteInOrder() throws Exception {
+        // given
+        Session session = sessionWithCapacity(CAPACITY);
+        List<User> booked = users.subList(0, CAPACITY);
+        List<User> promoted = users.subList(CAPACITY, 2 * CAPACITY);
+        List<User> waiting = users.subList(2 * CAPACITY, 3 * CAPACITY);
+        for (User user : users.subList(0, 3 * CAPACITY)) {
+            joinWaitlist(session, user).call();
+        }
+
+        // when
+        List<HttpStatus> statuses = concurrently(booked.stream()
+                .map(user -> noLongerParticipate(session, user))
+                .collect(Collectors.toList()));
+
+        // then
+        assertThat(statuses).containsOnly(HttpStatus.OK);
+        assertThat(promoted).allMatch(user ->
+                participationRepository.existsBySessionIdAndUserId(session.getId(), user.getId()));
+        assertThat(seatsTaken(session)).isEqualTo(CAPACITY);
+        assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(CAPACITY);
+        for (int i = 0; i < waiting.size(); i++) {
+            assertThat(waitlistPosition(session, waiting.get(i))).isEqualTo(i + 1);
+        }
+    }
+
+    private Session sessionWithCapacity(int capacity) {
+        return sessionRepository.save(Session.builder()
+                .name("Popular Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(teacher)
+                .capacity(capacity)
+                .build());
+    }
+
+    private Callable<HttpStatus> participate(Session session, User user) {
+        return () -> restTemplate.exchange("/api/session/{id}/participate/{userId}", HttpMethod.POST,
+                new HttpEntity<>(headers), Void.class, session.getId(), user.getId()).getStatusCode();
+    }
+
+    private Callable<HttpStatus> noLongerParticipate(Session session, User user) {
+        return () -> restTemplate.exchange("/api/session/{id}/participate/{userId}", HttpMethod.DELETE,
+                new HttpEntity<>(headers), Void.class, session.getId(), user.getId()).getStatusCode();
+    }
+
+    private Callable<Long> joinWaitlist(Session session, User user) {
+        return () -> position(restTemplate.exchange("/api/session/{id}/waitlist/{userId}", HttpMethod.POST,
+                new HttpEntity<>(headers), Map.class, session.getId(), user.getId()).getBody());
+    }
+
+    private long waitlistPosition(Session session, User user) {
+        return position(restTemplate.exchange("/api/session/{id}/waitlist/{userId}", HttpMethod.GET,
+                new HttpEntity<>(headers), Map.class, session.getId(), user.getId()).getBody());
+    }
+
+    private static long position(Map<?, ?> body) {
+        return ((Number) body.get("position")).longValue();
+    }
+
+    private int seatsTaken(Session session) {
+        return sessionRepository.findById(session.getId()).map(Session::getSeatsTaken).orElse(-1);
+    }
+
+    /**
+     * Runs every request on its own thread, released together once all threads are ready.
+     */
+    private <T> List<T> concurrently(List<Callable<T>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch ready = new CountDownLatch(requests.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> request : requests) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return request.call();
+                }));
+            }
+            ready.await();
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -5,6 +5,9 @@ import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionBulkRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionPatchRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionRecurrence;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
@@ -15,18 +18,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -158,6 +173,65 @@ public class SessionControllerIntegrationTest {
                 .andExpect(jsonPath("$.name").value(sessionDto.getName()));
     }
 
+    @DisplayName("JUnit test for create sessions in bulk from a recurrence spanning several batches")
+    @Test
+    void givenWeeklyRecurrence_whenCreateAll_thenCreateEverySessionWithItsParticipants() throws Exception {
+        // given
+        SessionDto template = new SessionDto();
+        template.setName("Weekly Session");
+        template.setDate(new Date());
+        template.setTeacher_id(teacher.getId());
+        template.setDescription("Test DTO Description");
+        template.setCapacity(10);
+        template.setUsers(Collections.singletonList(user.getId()));
+        SessionRecurrence recurrence = new SessionRecurrence();
+        recurrence.setSession(template);
+        recurrence.setFrequency(SessionRecurrence.Frequency.WEEKLY);
+        recurrence.setDays(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        recurrence.setCount(2 * Session.ID_ALLOCATION_SIZE + 1);
+        SessionBulkRequest request = new SessionBulkRequest();
+        request.setRecurrence(recurrence);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids.length()").value(2 * Session.ID_ALLOCATION_SIZE + 1));
+        List<Session> sessions = sessionRepository.findAll();
+        assertThat(sessions).hasSize(2 * Session.ID_ALLOCATION_SIZE + 1);
+        assertThat(sessions).extracting(Session::getSeatsTaken).containsOnly(1);
+        assertThat(sessions).extracting(created -> created.getDate().toInstant().atZone(ZoneOffset.UTC).getDayOfWeek())
+                .containsOnly(DayOfWeek.MONDAY, DayOfWeek.THURSDAY);
+    }
+
+    @DisplayName("JUnit test for create sessions in bulk with an unknown teacher")
+    @Test
+    void givenUnknownTeacher_whenCreateAll_thenReturnBadRequestAndCreateNothing() throws Exception {
+        // given
+        SessionDto known = new SessionDto();
+        known.setName("Known teacher");
+        known.setDate(new Date());
+        known.setTeacher_id(teacher.getId());
+        known.setDescription("Test DTO Description");
+        SessionDto unknown = new SessionDto();
+        unknown.setName("Unknown teacher");
+        unknown.setDate(new Date());
+        unknown.setTeacher_id(teacher.getId() + 1);
+        unknown.setDescription("Test DTO Description");
+        SessionBulkRequest request = new SessionBulkRequest();
+        request.setSessions(Arrays.asList(known, unknown));
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                // then
+                .andExpect(status().isBadRequest());
+        assertThat(sessionRepository.count()).isZero();
+    }
+
     @DisplayName("JUnit test for create session operation - invalid input")
     @Test
     void givenInvalidSessionDto_whenCreate_thenReturnBadRequest() throws Exception {
@@ -196,6 +270,124 @@ public class SessionControllerIntegrationTest {
                 .andExpect(jsonPath("$.description").value(sessionDto.getDescription()));
     }
 
+    @DisplayName("JUnit test for update session without users keeping the participants")
+    @Test
+    void givenSessionDtoWithoutUsers_whenUpdate_thenKeepParticipants() throws Exception {
+        // given
+        session.setUsers(new ArrayList<>(Collections.singletonList(user)));
+        sessionRepository.save(session);
+
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Test DTO Session");
+        sessionDto.setDate(session.getDate());
+        sessionDto.setTeacher_id(teacher.getId());
+        sessionDto.setDescription("Test DTO Description");
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test DTO Session"))
+                .andExpect(jsonPath("$.users[0]").value(user.getId()));
+    }
+
+    @DisplayName("JUnit test for update session without capacity keeping the limit")
+    @Test
+    void givenSessionDtoWithoutCapacity_whenUpdate_thenKeepCapacity() throws Exception {
+        // given
+        session.setCapacity(5);
+        sessionRepository.save(session);
+
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Test DTO Session");
+        sessionDto.setDate(session.getDate());
+        sessionDto.setTeacher_id(teacher.getId());
+        sessionDto.setDescription("Test DTO Description");
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.capacity").value(5));
+
+        assertThat(sessionRepository.findById(session.getId()).get().getCapacity()).isEqualTo(5);
+    }
+
+    @DisplayName("JUnit test for update session read before a participant joined")
+    @Test
+    void givenParticipationSinceRead_whenUpdate_thenReturnConflict() throws Exception {
+        // given
+        sessionRepository.save(session);
+        SessionDto read = objectMapper.readValue(mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId()))
+                .andReturn().getResponse().getContentAsString(), SessionDto.class);
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isOk());
+        read.setName("Test DTO Session");
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(read)))
+                // then
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId()))
+                .andExpect(jsonPath("$.name").value("Test Session"))
+                .andExpect(jsonPath("$.users[0]").value(user.getId()));
+    }
+
+    @DisplayName("JUnit test for patch session changing only the fields given, once per version")
+    @Test
+    void givenSessionPatch_whenPatchTwiceAtSameVersion_thenUpdateThenReturnConflict() throws Exception {
+        // given
+        session.setUsers(new ArrayList<>(Collections.singletonList(user)));
+        sessionRepository.save(session);
+        SessionPatchRequest patch = new SessionPatchRequest();
+        patch.setName("Patched Session");
+        patch.setVersion(0L);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                // then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patched Session"))
+                .andExpect(jsonPath("$.description").value("Test Description"))
+                .andExpect(jsonPath("$.teacher_id").value(teacher.getId()))
+                .andExpect(jsonPath("$.users[0]").value(user.getId()))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                .andExpect(status().isConflict());
+    }
+
+    @DisplayName("JUnit test for patch session operation - session not found")
+    @Test
+    void givenUnknownSession_whenPatch_thenReturnNotFound() throws Exception {
+        // given
+        SessionPatchRequest patch = new SessionPatchRequest();
+        patch.setName("Patched Session");
+        patch.setVersion(0L);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/session/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                // then
+                .andExpect(status().isNotFound());
+    }
+
     @DisplayName("JUnit test for update session operation - invalid input")
     @Test
     void givenInvalidSessionDto_whenUpdate_thenReturnBadRequest() throws Exception {
@@ -336,4 +528,88 @@ public class SessionControllerIntegrationTest {
                 // then
                 .andExpect(status().isBadRequest());
     }
+
+    @DisplayName("JUnit test for export operation")
+    @Test
+    void givenSessionsWithParticipants_whenExport_thenStreamEverySession() throws Exception {
+        // given
+        List<User> users = new ArrayList<>();
+        users.add(user);
+        session.setUsers(users);
+        sessionRepository.save(session);
+        sessionRepository.save(Session.builder()
+                .name("Second Session")
+                .date(new Date())
+                .teacher(teacher)
+                .description("Test Description")
+                .build());
+
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        SessionDto first = objectMapper.readValue(lines[0], SessionDto.class);
+        assertThat(first.getId()).isEqualTo(session.getId());
+        assertThat(first.getTeacher_id()).isEqualTo(teacher.getId());
+        assertThat(first.getUsers()).containsExactly(user.getId());
+        assertThat(objectMapper.readValue(lines[1], SessionDto.class).getName()).isEqualTo("Second Session");
+    }
+
+    @DisplayName("JUnit test for findById answering 304 until the session participants change")
+    @Test
+    void givenCurrentETag_whenFindById_thenReturnNotModifiedUntilParticipation() throws Exception {
+        // given
+        sessionRepository.save(session);
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", session.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.users[0]").value(user.getId()));
+    }
+
+    @DisplayName("JUnit test for findAll answering 304 until a session is added")
+    @Test
+    void givenCurrentETag_whenFindAll_thenReturnNotModifiedUntilSessionAdded() throws Exception {
+        // given
+        sessionRepository.save(session);
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        sessionRepository.save(Session.builder()
+                .name("Second Session")
+                .date(new Date())
+                .teacher(teacher)
+                .description("Test Description")
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
 }
@@ -0,0 +1,297 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Measures the statements, heap and payload size of the session read endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:cleanup.sql")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+public class SessionFetchPlanIntegrationTest {
+    private static final Logger logger = LoggerFactory.getLogger(SessionFetchPlanIntegrationTest.class);
+
+    private static final int SESSIONS = 50;
+
+    private static final int PARTICIPANTS = 20;
+
+    private static final String DESCRIPTION = String.join(" ", Collections.nCopies(150, "Breathe in."));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @LocalServerPort
+    private int port;
+
+    private User user;
+
+    private Statistics statistics;
+
+    private Session session;
+
+    @BeforeEach
+    void setUp() {
+        Teacher teacher = teacherRepository.save(Teacher.builder()
+                .firstName("test_teacher")
+                .lastName("test_teacher")
+                .build());
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            users.add(User.builder()
+                    .email("user" + i + "@test.com")
+                    .firstName("test_firstname")
+                    .lastName("test_lastname")
+                    .password("test_password")
+                    .admin(false)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+        user = users.get(0);
+
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date())
+                    .description(DESCRIPTION)
+                    .teacher(teacher)
+                    .users(new ArrayList<>(users))
+                    .build());
+        }
+        session = sessionRepository.saveAll(sessions).get(0);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @DisplayName("findAll loads sessions and participant ids in a constant number of statements")
+    @Test
+    void givenSessionsWithParticipants_whenFindAll_thenStatementCountIsConstant() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/api/session")
+                .contentType(MediaType.APPLICATION_JSON);
+        mockMvc.perform(request);
+        statistics.clear();
+        long allocated = allocatedBytes();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SESSIONS))
+                .andExpect(jsonPath("$[0].users.length()").value(PARTICIPANTS));
+
+        report("findAll", allocatedBytes() - allocated);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(SESSIONS + 1);
+    }
+
+    @DisplayName("findAll answers a conditional request with a single version query")
+    @Test
+    void givenCurrentETag_whenFindAll_thenOnlyVersionIsQueried() throws Exception {
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        report("findAll 304", 0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @DisplayName("findAll summary view selects its columns in one statement and is a fraction of the detail view")
+    @Test
+    void givenSessionsWithParticipants_whenFindAllSummaries_thenPayloadIsSmaller() throws Exception {
+        int detail = mockMvc.perform(MockMvcRequestBuilders.get("/api/session"))
+                .andReturn().getResponse().getContentAsByteArray().length;
+        statistics.clear();
+
+        int summary = mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SESSIONS))
+                .andReturn().getResponse().getContentAsByteArray().length;
+
+        report("findAll summary", 0);
+        logger.debug("findAll payload: {} bytes detail, {} bytes summary", detail, summary);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(summary).isLessThan(detail / 10);
+    }
+
+    @DisplayName("findAll responses are gzip compressed when the client accepts it")
+    @Test
+    void givenGzipAccepted_whenFindAll_thenResponseIsCompressed() throws Exception {
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .id(user.getId())
+                .username(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .admin(false)
+                .build();
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null));
+
+        int identity = fetch("/api/session", token, "identity");
+        HttpURLConnection connection = open("/api/session", token, "gzip");
+        int gzip = readFully(connection);
+
+        logger.debug("findAll over HTTP: {} bytes identity, {} bytes gzip", identity, gzip);
+        assertThat(connection.getHeaderField(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzip).isLessThan(identity / 5);
+    }
+
+    @DisplayName("findById loads participant ids without hydrating users")
+    @Test
+    void givenSessionWithParticipants_whenFindById_thenUsersAreNotLoaded() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/api/session/{id}", session.getId())
+                .contentType(MediaType.APPLICATION_JSON);
+        mockMvc.perform(request);
+        statistics.clear();
+        long allocated = allocatedBytes();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(PARTICIPANTS));
+
+        report("findById", allocatedBytes() - allocated);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(2);
+    }
+
+    @DisplayName("update resolves participant ids without selecting each user")
+    @Test
+    void givenSessionDtoWithParticipants_whenUpdate_thenUsersAreNotSelectedOneByOne() throws Exception {
+        SessionDto sessionDto = sessionMapper.toDto(session);
+        statistics.clear();
+        long allocated = allocatedBytes();
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(PARTICIPANTS));
+
+        report("update", allocatedBytes() - allocated);
+        assertThat(statistics.getEntityFetchCount()).isLessThan(PARTICIPANTS);
+    }
+
+    @DisplayName("export streams sessions with one participant query per chunk")
+    @Test
+    void givenSessionsWithParticipants_whenExport_thenStatementCountIsConstant() throws Exception {
+        statistics.clear();
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // allocations happen on the async thread, so only statements are reported
+        report("export", 0);
+        assertThat(result.getResponse().getContentAsString().split("\n")).hasSize(SESSIONS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private int fetch(String path, String token, String encoding) throws IOException {
+        return readFully(open(path, token, encoding));
+    }
+
+    private HttpURLConnection open(String path, String token, String encoding) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, encoding);
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        return connection;
+    }
+
+    private static int readFully(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            int total = 0;
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    private void report(String endpoint, long allocated) {
+        logger.debug("{}: {} statements, {} queries, {} entities loaded, {} entities fetched, {} bytes allocated",
+                endpoint, statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(), statistics.getEntityFetchCount(), allocated);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
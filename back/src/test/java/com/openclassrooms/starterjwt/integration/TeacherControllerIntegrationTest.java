@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
@@ -19,6 +20,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -105,4 +107,42 @@ public class TeacherControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].firstName").value(anotherTeacher.getFirstName()))
                 .andExpect(jsonPath("$[1].lastName").value(anotherTeacher.getLastName()));
     }
+
+    @DisplayName("JUnit test for findById operation not modified since the client copy")
+    @Test
+    void givenLastModified_whenFindById_thenReturnNotModified() throws Exception {
+        // Given
+        teacherRepository.save(teacher);
+        String lastModified = mockMvc.perform(get("/api/teacher/{id}", teacher.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        // When & Then
+        mockMvc.perform(get("/api/teacher/{id}", teacher.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @DisplayName("JUnit test for findAll operation with a current ETag until a teacher is added")
+    @Test
+    void givenCurrentETag_whenFindAll_thenReturnNotModifiedUntilTeacherAdded() throws Exception {
+        // Given
+        teacherRepository.save(teacher);
+        String eTag = mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        teacherRepository.save(Teacher.builder()
+                .firstName("second_firstname")
+                .lastName("second_lastname")
+                .build());
+
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
 }
@@ -1,23 +1,32 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionPatchRequest;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
+import com.openclassrooms.starterjwt.services.SessionService;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.hibernate.collection.internal.PersistentBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SessionMapperTest {
@@ -25,14 +34,17 @@ public class SessionMapperTest {
     private SessionMapper sessionMapper;
     private TeacherService teacherService;
     private UserService userService;
+    private SessionService sessionService;
 
     @BeforeEach
     public void setUp() {
         teacherService = mock(TeacherService.class);
         userService = mock(UserService.class);
+        sessionService = mock(SessionService.class);
         sessionMapper = Mappers.getMapper(SessionMapper.class);
         sessionMapper.teacherService = teacherService;
         sessionMapper.userService = userService;
+        sessionMapper.sessionService = sessionService;
     }
 
     private SessionDto createSessionDto() {
@@ -82,9 +94,11 @@ public class SessionMapperTest {
         User user2 = new User();
         user2.setId(2L);
 
-        when(teacherService.findById(1L)).thenReturn(teacher);
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        List<User> references = new java.util.ArrayList<>();
+        references.add(user1);
+        references.add(user2);
+        when(teacherService.getReference(1L)).thenReturn(teacher);
+        when(userService.getReferences(sessionDto.getUsers())).thenReturn(references);
 
         // When
         Session session = sessionMapper.toEntity(sessionDto);
@@ -112,9 +126,11 @@ public class SessionMapperTest {
         User user2 = new User();
         user2.setId(2L);
 
-        when(teacherService.findById(1L)).thenReturn(teacher);
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        List<User> references = new java.util.ArrayList<>();
+        references.add(user1);
+        references.add(user2);
+        when(teacherService.getReferences(Collections.singleton(1L))).thenReturn(Collections.singletonMap(1L, teacher));
+        when(userService.getReferences(sessionDto.getUsers())).thenReturn(references);
 
         List<SessionDto> sessionDtoList = new ArrayList<>();
         sessionDtoList.add(sessionDto);
@@ -133,6 +149,28 @@ public class SessionMapperTest {
         assertEquals(expected, session.get(0).getUsers());
     }
 
+    @DisplayName("Convert SessionDtoList should look the teachers up once for the whole list")
+    @Test
+    public void givenSessionDtoListWithSameTeacher_whenConvertToEntity_thenTeachersAreFetchedOnce() {
+        // Given
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        List<SessionDto> sessionDtoList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sessionDtoList.add(createSessionDto());
+        }
+        when(teacherService.getReferences(Collections.singleton(1L))).thenReturn(Collections.singletonMap(1L, teacher));
+
+        // When
+        List<Session> sessions = sessionMapper.toEntity(sessionDtoList);
+
+        // Then
+        assertEquals(3, sessions.size());
+        sessions.forEach(session -> assertSame(teacher, session.getTeacher()));
+        verify(teacherService, times(1)).getReferences(Collections.singleton(1L));
+        verify(teacherService, times(0)).getReference(anyLong());
+    }
+
     @DisplayName("Convert Session to SessionDto should map fields correctly")
     @Test
     public void givenSession_whenConvertToDto_thenDtoShouldMatch() {
@@ -175,6 +213,48 @@ public class SessionMapperTest {
         assertEquals(expected, sessionDto.get(0).getUsers());
     }
 
+    @DisplayName("Convert SessionList with lazy users to SessionDtoList should read participant ids in one query")
+    @Test
+    public void givenSessionListWithLazyUsers_whenConvertToDto_thenParticipantIdsAreFetchedOnce() {
+        // Given
+        Session first = createSession();
+        first.setId(1L);
+        first.setUsers(new PersistentBag());
+        Session second = createSession();
+        second.setId(2L);
+        second.setUsers(new PersistentBag());
+        List<Session> sessionList = new ArrayList<>();
+        sessionList.add(first);
+        sessionList.add(second);
+
+        List<Long> participants = new ArrayList<>();
+        participants.add(3L);
+        participants.add(4L);
+        List<Long> sessionIds = new ArrayList<>();
+        sessionIds.add(1L);
+        sessionIds.add(2L);
+        when(sessionService.findParticipantIds(sessionIds)).thenReturn(Collections.singletonMap(1L, participants));
+
+        // When
+        List<SessionDto> sessionDto = sessionMapper.toDto(sessionList);
+
+        // Then
+        assertEquals(participants, sessionDto.get(0).getUsers());
+        assertTrue(sessionDto.get(1).getUsers().isEmpty());
+        verify(sessionService, times(1)).findParticipantIds(sessionIds);
+    }
+
+    @DisplayName("Convert SessionDto with unknown user should be rejected")
+    @Test
+    public void givenSessionDtoWithUnknownUser_whenConvertToEntity_thenThrowBadRequestException() {
+        // Given
+        SessionDto sessionDto = createSessionDto();
+        when(userService.getReferences(sessionDto.getUsers())).thenThrow(new BadRequestException("Unknown user ids: [2]"));
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> sessionMapper.toEntity(sessionDto));
+    }
+
     @Test
     @DisplayName("Test toEntity with null dto list")
     void givenNullDtoList_whenToEntity_thenReturnNull() {
@@ -274,4 +354,122 @@ public class SessionMapperTest {
         assertNull(result.getTeacher_id());
         assertTrue(result.getUsers().isEmpty());
     }
+
+    @Test
+    @DisplayName("Test toSummaryDto with a SessionSummary")
+    void givenSessionSummary_whenToSummaryDto_thenMapTeacherId() {
+        // Given
+        Date date = new Date();
+        SessionSummary summary = new SessionSummary(1L, "Session_Test_Name", date, 2L, null);
+
+        // When
+        List<SessionSummaryDto> result = sessionMapper.toSummaryDto(Collections.singletonList(summary));
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals("Session_Test_Name", result.get(0).getName());
+        assertEquals(date, result.get(0).getDate());
+        assertEquals(2L, result.get(0).getTeacher_id());
+    }
+
+    @Test
+    @DisplayName("Update Session from SessionDto should keep the participants, the version and the teacher")
+    void givenSessionDto_whenUpdate_thenKeepParticipantsVersionAndTeacher() {
+        // Given
+        Session session = createSession();
+        session.setId(1L);
+        session.setVersion(3L);
+        List<User> participants = session.getUsers();
+        Teacher teacher = session.getTeacher();
+        SessionDto sessionDto = createSessionDto();
+        sessionDto.setName("Renamed");
+        sessionDto.setCapacity(10);
+        sessionDto.setVersion(1L);
+
+        // When
+        sessionMapper.update(sessionDto, session);
+
+        // Then
+        assertEquals("Renamed", session.getName());
+        assertEquals(10, session.getCapacity());
+        assertEquals(1L, session.getId());
+        assertEquals(3L, session.getVersion());
+        assertSame(participants, session.getUsers());
+        assertSame(teacher, session.getTeacher());
+        verify(teacherService, times(0)).getReference(anyLong());
+    }
+
+    @Test
+    @DisplayName("Update Session from SessionDto without capacity should keep the current one")
+    void givenSessionDtoWithoutCapacity_whenUpdate_thenKeepCapacity() {
+        // Given
+        Session session = createSession();
+        session.setCapacity(5);
+        SessionDto sessionDto = createSessionDto();
+        sessionDto.setCapacity(null);
+
+        // When
+        sessionMapper.update(sessionDto, session);
+
+        // Then
+        assertEquals(5, session.getCapacity());
+    }
+
+    @Test
+    @DisplayName("Update Session from SessionDto with another teacher should look it up")
+    void givenSessionDtoWithAnotherTeacher_whenUpdate_thenReplaceTeacher() {
+        // Given
+        Session session = createSession();
+        SessionDto sessionDto = createSessionDto();
+        sessionDto.setTeacher_id(2L);
+        Teacher other = new Teacher();
+        other.setId(2L);
+        when(teacherService.getReference(2L)).thenReturn(other);
+
+        // When
+        sessionMapper.update(sessionDto, session);
+
+        // Then
+        assertSame(other, session.getTeacher());
+    }
+
+    @Test
+    @DisplayName("Convert user ids to users should keep null for no list")
+    void givenUserIds_whenToUsers_thenReturnReferencesOrNull() {
+        // Given
+        User user = new User();
+        user.setId(2L);
+        when(userService.getReferences(Collections.singletonList(2L))).thenReturn(Collections.singletonList(user));
+
+        // When & Then
+        assertEquals(Collections.singletonList(user), sessionMapper.toUsers(Collections.singletonList(2L)));
+        assertNull(sessionMapper.toUsers(null));
+    }
+
+    @Test
+    @DisplayName("Update Session from SessionPatchRequest should only change the fields set")
+    void givenSessionPatch_whenUpdate_thenChangeOnlyFieldsSet() {
+        // Given
+        Session session = createSession();
+        session.setCapacity(10);
+        Date date = session.getDate();
+        List<User> participants = session.getUsers();
+        Teacher teacher = session.getTeacher();
+        SessionPatchRequest patch = new SessionPatchRequest();
+        patch.setDescription("Patched");
+        patch.setVersion(1L);
+
+        // When
+        sessionMapper.update(patch, session);
+
+        // Then
+        assertEquals("Patched", session.getDescription());
+        assertEquals("Session_Test_Name", session.getName());
+        assertEquals(date, session.getDate());
+        assertEquals(10, session.getCapacity());
+        assertSame(teacher, session.getTeacher());
+        assertSame(participants, session.getUsers());
+        verify(teacherService, times(0)).getReference(anyLong());
+    }
 }
\ No newline at end of file
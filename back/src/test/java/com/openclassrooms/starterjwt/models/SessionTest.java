@@ -147,7 +147,7 @@ class SessionTest {
         String toString = session.toString();
 
         // Then
-        String expectedToString = "Session(id=1, name=Session Name, date=" + session.getDate() + ", description=This is a description of the session., teacher=" + teacher + ", users=null, createdAt=" + session.getCreatedAt() + ", updatedAt=" + session.getUpdatedAt() + ")";
+        String expectedToString = "Session(id=1, name=Session Name, date=" + session.getDate() + ", description=This is a description of the session., capacity=null, seatsTaken=0, waitlistTickets=0, version=null, teacher=" + teacher + ", users=null, createdAt=" + session.getCreatedAt() + ", updatedAt=" + session.getUpdatedAt() + ")";
         assertEquals(expectedToString, toString);
     }
 }
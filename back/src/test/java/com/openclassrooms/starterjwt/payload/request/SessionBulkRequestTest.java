@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionBulkRequestTest {
+
+    @Test
+    @DisplayName("JUnit test SessionBulkRequest with a list of sessions")
+    void givenSessions_whenToSessionDtos_thenReturnThem() {
+        // Given
+        List<SessionDto> sessions = Collections.singletonList(template(new Date()));
+        SessionBulkRequest request = new SessionBulkRequest();
+        request.setSessions(sessions);
+
+        // When & Then
+        assertSame(sessions, request.toSessionDtos());
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionBulkRequest with a recurrence copies the template on every date")
+    void givenRecurrence_whenToSessionDtos_thenCopyTemplateOnEveryDate() {
+        // Given
+        SessionDto template = template(new Date(0));
+        SessionRecurrence recurrence = new SessionRecurrence();
+        recurrence.setSession(template);
+        recurrence.setFrequency(SessionRecurrence.Frequency.DAILY);
+        recurrence.setCount(2);
+        SessionBulkRequest request = new SessionBulkRequest();
+        request.setRecurrence(recurrence);
+
+        // When
+        List<SessionDto> sessions = request.toSessionDtos();
+
+        // Then
+        assertEquals(2, sessions.size());
+        assertEquals(new Date(24 * 3600_000L), sessions.get(1).getDate());
+        assertNull(sessions.get(1).getId());
+        assertEquals("Morning flow", sessions.get(1).getName());
+        assertEquals(2L, sessions.get(1).getTeacher_id());
+        assertEquals(12, sessions.get(1).getCapacity());
+        assertEquals(Arrays.asList(3L, 4L), sessions.get(1).getUsers());
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionBulkRequest needs exactly one of sessions and recurrence")
+    void givenNeitherOrBoth_whenToSessionDtos_thenThrowBadRequestException() {
+        SessionBulkRequest request = new SessionBulkRequest();
+        assertThrows(BadRequestException.class, request::toSessionDtos);
+
+        request.setSessions(Collections.singletonList(template(new Date())));
+        request.setRecurrence(new SessionRecurrence());
+        assertThrows(BadRequestException.class, request::toSessionDtos);
+    }
+
+    private static SessionDto template(Date date) {
+        SessionDto session = new SessionDto();
+        session.setName("Morning flow");
+        session.setDate(date);
+        session.setTeacher_id(2L);
+        session.setDescription("description");
+        session.setCapacity(12);
+        session.setUsers(Arrays.asList(3L, 4L));
+        return session;
+    }
+}
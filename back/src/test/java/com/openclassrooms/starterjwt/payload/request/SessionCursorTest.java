@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionCursorTest {
+
+    @Test
+    @DisplayName("JUnit test SessionCursor encode then decode keeps date and id")
+    void givenSession_whenEncodeAndDecode_thenSamePosition() {
+        // Given
+        Date date = new Date(1700000000000L);
+        Session session = Session.builder().id(42L).date(date).build();
+
+        // When
+        SessionCursor cursor = SessionCursor.decode(SessionCursor.of(session).encode());
+
+        // Then
+        assertEquals(date, cursor.getDate(), "Expected date to match");
+        assertEquals(42L, cursor.getId(), "Expected id to match");
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionCursor decode with invalid value")
+    void givenInvalidCursor_whenDecode_thenThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> SessionCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> SessionCursor.decode("MTIzNDU"));
+    }
+}
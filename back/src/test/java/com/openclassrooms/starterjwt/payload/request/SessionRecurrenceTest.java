@@ -0,0 +1,107 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionRecurrenceTest {
+
+    private static final ZoneId PARIS = ZoneId.of("Europe/Paris");
+
+    @Test
+    @DisplayName("JUnit test SessionRecurrence daily with a count")
+    void givenDailyRuleWithCount_whenOccurrences_thenEveryIntervalFromStart() {
+        // Given
+        SessionRecurrence recurrence = recurrence(ZonedDateTime.of(2026, 1, 5, 9, 0, 0, 0, PARIS),
+                SessionRecurrence.Frequency.DAILY);
+        recurrence.setInterval(2);
+        recurrence.setCount(3);
+
+        // When
+        List<Date> dates = recurrence.occurrences(10);
+
+        // Then
+        assertEquals(Arrays.asList(
+                date(ZonedDateTime.of(2026, 1, 5, 9, 0, 0, 0, PARIS)),
+                date(ZonedDateTime.of(2026, 1, 7, 9, 0, 0, 0, PARIS)),
+                date(ZonedDateTime.of(2026, 1, 9, 9, 0, 0, 0, PARIS))), dates);
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionRecurrence weekly on several days until a date, skipping days before the start")
+    void givenWeeklyRuleWithDaysAndUntil_whenOccurrences_thenListedDaysUpToUntil() {
+        // Given a Wednesday start, sessions on Mondays and Wednesdays
+        SessionRecurrence recurrence = recurrence(ZonedDateTime.of(2026, 1, 7, 18, 30, 0, 0, PARIS),
+                SessionRecurrence.Frequency.WEEKLY);
+        recurrence.setDays(EnumSet.of(DayOfWeek.WEDNESDAY, DayOfWeek.MONDAY));
+        recurrence.setUntil(date(ZonedDateTime.of(2026, 1, 19, 18, 30, 0, 0, PARIS)));
+
+        // When
+        List<Integer> days = recurrence.occurrences(10).stream()
+                .map(date -> date.toInstant().atZone(PARIS).getDayOfMonth())
+                .collect(Collectors.toList());
+
+        // Then
+        assertEquals(Arrays.asList(7, 12, 14, 19), days);
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionRecurrence keeps the local time across a daylight saving change")
+    void givenZone_whenOccurrencesAcrossDaylightSaving_thenSameLocalTime() {
+        // Given
+        SessionRecurrence recurrence = recurrence(ZonedDateTime.of(2026, 3, 28, 9, 0, 0, 0, PARIS),
+                SessionRecurrence.Frequency.DAILY);
+        recurrence.setZone("Europe/Paris");
+        recurrence.setCount(2);
+
+        // When
+        List<Date> dates = recurrence.occurrences(10);
+
+        // Then
+        assertEquals(9, dates.get(1).toInstant().atZone(PARIS).getHour(), "Expected 9 o'clock after the change");
+        assertEquals(23 * 3600_000L, dates.get(1).getTime() - dates.get(0).getTime());
+    }
+
+    @Test
+    @DisplayName("JUnit test SessionRecurrence without end, with an unknown zone or too many occurrences")
+    void givenInvalidRule_whenOccurrences_thenThrowBadRequestException() {
+        SessionRecurrence unbounded = recurrence(ZonedDateTime.now(PARIS), SessionRecurrence.Frequency.DAILY);
+        assertThrows(BadRequestException.class, () -> unbounded.occurrences(10));
+
+        SessionRecurrence unknownZone = recurrence(ZonedDateTime.now(PARIS), SessionRecurrence.Frequency.DAILY);
+        unknownZone.setCount(1);
+        unknownZone.setZone("Nowhere/Town");
+        assertThrows(BadRequestException.class, () -> unknownZone.occurrences(10));
+
+        SessionRecurrence tooLong = recurrence(ZonedDateTime.now(PARIS), SessionRecurrence.Frequency.WEEKLY);
+        tooLong.setCount(11);
+        assertThrows(BadRequestException.class, () -> tooLong.occurrences(10));
+    }
+
+    private static SessionRecurrence recurrence(ZonedDateTime start, SessionRecurrence.Frequency frequency) {
+        SessionDto session = new SessionDto();
+        session.setDate(date(start));
+        SessionRecurrence recurrence = new SessionRecurrence();
+        recurrence.setSession(session);
+        recurrence.setFrequency(frequency);
+        recurrence.setZone(PARIS.getId());
+        return recurrence;
+    }
+
+    private static Date date(ZonedDateTime dateTime) {
+        return Date.from(dateTime.toInstant());
+    }
+}
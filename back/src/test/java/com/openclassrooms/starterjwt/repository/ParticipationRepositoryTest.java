@@ -0,0 +1,131 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:cleanup.sql")
+@DataJpaTest
+@TestPropertySource("classpath:application-test.properties")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ParticipationRepositoryTest {
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Session session;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Teacher teacher = teacherRepository.save(Teacher.builder()
+                .firstName("test_first_name")
+                .lastName("test_last_name")
+                .build());
+
+        user = userRepository.save(User.builder()
+                .email("test@test.com")
+                .firstName("test_firstname")
+                .lastName("test_lastname")
+                .password("test_password")
+                .admin(false)
+                .build());
+
+        session = sessionRepository.saveAndFlush(Session.builder()
+                .name("Test Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(teacher)
+                .build());
+    }
+
+    @DisplayName("JUnit test for add participant operation")
+    @Test
+    void givenSessionAndUser_whenAddParticipant_thenParticipationExists() {
+        // when
+        int inserted = participationRepository.addParticipant(session.getId(), user.getId());
+
+        // then
+        Assertions.assertThat(inserted).isEqualTo(1);
+        Assertions.assertThat(participationRepository.existsBySessionIdAndUserId(session.getId(), user.getId())).isTrue();
+        Assertions.assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for add participant twice operation")
+    @Test
+    void givenParticipation_whenAddParticipantAgain_thenNoRowIsInserted() {
+        // given
+        participationRepository.addParticipant(session.getId(), user.getId());
+
+        // when
+        int inserted = participationRepository.addParticipant(session.getId(), user.getId());
+
+        // then
+        Assertions.assertThat(inserted).isZero();
+        Assertions.assertThat(participationRepository.countBySessionId(session.getId())).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for add participant operation with unknown user")
+    @Test
+    void givenUnknownUser_whenAddParticipant_thenThrowDataIntegrityViolationException() {
+        // when
+        Throwable thrown = Assertions.catchThrowable(() -> participationRepository.addParticipant(session.getId(), user.getId() + 1));
+
+        // then
+        Assertions.assertThat(thrown).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @DisplayName("JUnit test for remove participant operation")
+    @Test
+    void givenParticipation_whenRemoveParticipant_thenParticipationIsRemoved() {
+        // given
+        participationRepository.addParticipant(session.getId(), user.getId());
+
+        // when
+        int removed = participationRepository.removeParticipant(session.getId(), user.getId());
+
+        // then
+        Assertions.assertThat(removed).isEqualTo(1);
+        Assertions.assertThat(participationRepository.existsBySessionIdAndUserId(session.getId(), user.getId())).isFalse();
+        Assertions.assertThat(participationRepository.removeParticipant(session.getId(), user.getId())).isZero();
+    }
+
+    @DisplayName("JUnit test for find participant ids operation")
+    @Test
+    void givenParticipation_whenFindParticipantIds_thenReturnSessionAndUserIds() {
+        // given
+        participationRepository.addParticipant(session.getId(), user.getId());
+
+        // when
+        List<SessionParticipant> participants = participationRepository.findParticipantIds(Collections.singletonList(session.getId()));
+
+        // then
+        Assertions.assertThat(participants).hasSize(1);
+        Assertions.assertThat(participants.get(0).getSessionId()).isEqualTo(session.getId());
+        Assertions.assertThat(participants.get(0).getUserId()).isEqualTo(user.getId());
+    }
+}
@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,10 +10,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +34,12 @@ class SessionRepositoryTest {
     @Autowired
     private TeacherRepository teacherRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Session session;
 
     private Teacher teacher;
@@ -132,4 +143,116 @@ class SessionRepositoryTest {
         Optional<Session> foundSession = sessionRepository.findById(savedSession.getId());
         Assertions.assertThat(foundSession).isEmpty();
     }
+
+    @DisplayName("JUnit test for keyset pagination of sessions operation")
+    @Test
+    void givenSessions_whenFindFirstPageThenPageAfter_thenSeekOnDateAndId() {
+        // given
+        Date date = new Date(1700000000000L);
+        Session first = sessionRepository.save(Session.builder().name("First").date(date).description("d").teacher(teacher).build());
+        Session second = sessionRepository.save(Session.builder().name("Second").date(date).description("d").teacher(teacher).build());
+        Session third = sessionRepository.save(Session.builder().name("Third").date(new Date(date.getTime() + 60000)).description("d").teacher(teacher).build());
+
+        // when
+        Slice<Session> firstPage = sessionRepository.findFirstPage(null, null, teacher.getId(), PageRequest.of(0, 2));
+        Session last = firstPage.getContent().get(1);
+        Slice<Session> secondPage = sessionRepository.findPageAfter(last.getDate(), last.getId(), null, null, teacher.getId(), PageRequest.of(0, 2));
+
+        // then
+        Assertions.assertThat(firstPage.getContent()).extracting(Session::getId).containsExactly(first.getId(), second.getId());
+        Assertions.assertThat(firstPage.hasNext()).isTrue();
+        Assertions.assertThat(secondPage.getContent()).extracting(Session::getId).containsExactly(third.getId());
+        Assertions.assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @DisplayName("JUnit test for takeSeat stopping at the capacity")
+    @Test
+    void givenSessionWithCapacity_whenTakeSeat_thenTakeSeatsUntilFull() {
+        // given
+        Session savedSession = sessionRepository.saveAndFlush(session.setCapacity(2));
+        LocalDateTime now = LocalDateTime.now();
+
+        // when
+        int first = sessionRepository.takeSeat(savedSession.getId(), now);
+        int second = sessionRepository.takeSeat(savedSession.getId(), now);
+        int third = sessionRepository.takeSeat(savedSession.getId(), now);
+
+        // then
+        Assertions.assertThat(new int[]{first, second, third}).containsExactly(1, 1, 0);
+        Assertions.assertThat(seatsTaken(savedSession)).isEqualTo(2);
+    }
+
+    @DisplayName("JUnit test for takeSeat without capacity")
+    @Test
+    void givenSessionWithoutCapacity_whenTakeSeat_thenAlwaysTakeSeat() {
+        // given
+        Session savedSession = sessionRepository.saveAndFlush(session);
+
+        // when
+        int taken = sessionRepository.takeSeat(savedSession.getId(), LocalDateTime.now());
+
+        // then
+        Assertions.assertThat(taken).isEqualTo(1);
+        Assertions.assertThat(seatsTaken(savedSession)).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for releaseSeat never going below zero")
+    @Test
+    void givenOneSeatTaken_whenReleaseSeatTwice_thenStopAtZero() {
+        // given
+        Session savedSession = sessionRepository.saveAndFlush(session);
+        sessionRepository.takeSeat(savedSession.getId(), LocalDateTime.now());
+
+        // when
+        int first = sessionRepository.releaseSeat(savedSession.getId(), LocalDateTime.now());
+        int second = sessionRepository.releaseSeat(savedSession.getId(), LocalDateTime.now());
+
+        // then
+        Assertions.assertThat(new int[]{first, second}).containsExactly(1, 1);
+        Assertions.assertThat(seatsTaken(savedSession)).isZero();
+    }
+
+    @DisplayName("JUnit test for issueTicket only once the session is full")
+    @Test
+    void givenSessionWithCapacity_whenIssueTicket_thenIssueOnlyWhenFull() {
+        // given
+        Session savedSession = sessionRepository.saveAndFlush(session.setCapacity(1));
+
+        // when
+        int whileFree = sessionRepository.issueTicket(savedSession.getId());
+        sessionRepository.takeSeat(savedSession.getId(), LocalDateTime.now());
+        int whenFull = sessionRepository.issueTicket(savedSession.getId());
+
+        // then
+        Assertions.assertThat(new int[]{whileFree, whenFull}).containsExactly(0, 1);
+        entityManager.clear();
+        Assertions.assertThat(sessionRepository.findById(savedSession.getId()))
+                .map(Session::getWaitlistTickets).contains(1L);
+        Assertions.assertThat(sessionRepository.lockById(savedSession.getId())).contains(savedSession.getId());
+    }
+
+    @DisplayName("JUnit test for recountSeats from the participants")
+    @Test
+    void givenSessionWithParticipant_whenRecountSeats_thenCountParticipants() {
+        // given
+        User user = userRepository.save(User.builder()
+                .email("test@test.com")
+                .firstName("test_firstname")
+                .lastName("test_lastname")
+                .password("test_password")
+                .admin(false)
+                .build());
+        Session savedSession = sessionRepository.save(session.setUsers(Collections.singletonList(user)));
+
+        // when
+        sessionRepository.recountSeats(savedSession.getId());
+
+        // then
+        Assertions.assertThat(seatsTaken(savedSession)).isEqualTo(1);
+    }
+
+    private int seatsTaken(Session session) {
+        entityManager.clear();
+        return entityManager.find(Session.class, session.getId()).getSeatsTaken();
+    }
 }
\ No newline at end of file
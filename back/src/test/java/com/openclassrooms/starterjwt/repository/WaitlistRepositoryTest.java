@@ -0,0 +1,141 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = "classpath:cleanup.sql")
+@DataJpaTest
+@TestPropertySource("classpath:application-test.properties")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WaitlistRepositoryTest {
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Session session;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        Teacher teacher = teacherRepository.save(Teacher.builder()
+                .firstName("test_first_name")
+                .lastName("test_last_name")
+                .build());
+
+        users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("test" + i + "@test.com")
+                    .firstName("test_firstname")
+                    .lastName("test_lastname")
+                    .password("test_password")
+                    .admin(false)
+                    .build()));
+        }
+
+        session = sessionRepository.saveAndFlush(Session.builder()
+                .name("Test Session")
+                .date(new Date())
+                .description("Test Description")
+                .teacher(teacher)
+                .capacity(1)
+                .build());
+        sessionRepository.takeSeat(session.getId(), LocalDateTime.now());
+    }
+
+    @DisplayName("JUnit test for enqueue operation handing out consecutive tickets")
+    @Test
+    void givenFullSession_whenEnqueue_thenIssueConsecutiveTickets() {
+        // when
+        enqueue(users.get(0));
+        enqueue(users.get(1));
+
+        // then
+        Assertions.assertThat(waitlistRepository.findBySessionIdAndUserId(session.getId(), users.get(0).getId()))
+                .map(WaitlistEntry::getTicket).contains(1L);
+        Assertions.assertThat(waitlistRepository.findBySessionIdAndUserId(session.getId(), users.get(1).getId()))
+                .map(WaitlistEntry::getTicket).contains(2L);
+        Assertions.assertThat(waitlistRepository.existsBySessionIdAndUserId(session.getId(), users.get(2).getId())).isFalse();
+    }
+
+    @DisplayName("JUnit test for leave operation keeping the ticket as a gap")
+    @Test
+    void givenWaitingUsers_whenLeave_thenCountGapsAndSkipThemAtTheHead() {
+        // given
+        users.forEach(this::enqueue);
+
+        // when
+        int left = waitlistRepository.leave(session.getId(),
+                Arrays.asList(users.get(0).getId(), users.get(2).getId()));
+
+        // then
+        Assertions.assertThat(left).isEqualTo(2);
+        Assertions.assertThat(waitlistRepository.countLeftBetween(session.getId(), 2L, 4L)).isEqualTo(1L);
+        Assertions.assertThat(head(0L)).map(WaitlistEntry::getUserId).contains(users.get(1).getId());
+        Assertions.assertThat(head(2L)).map(WaitlistEntry::getUserId).contains(users.get(3).getId());
+        Assertions.assertThat(waitlistRepository.leave(session.getId(),
+                Collections.singletonList(users.get(0).getId()))).isZero();
+    }
+
+    @DisplayName("JUnit test for deleteUpTo operation")
+    @Test
+    void givenWaitingUsers_whenDeleteUpTo_thenRemoveTicketsUpToHead() {
+        // given
+        users.forEach(this::enqueue);
+        waitlistRepository.leave(session.getId(), Collections.singletonList(users.get(0).getId()));
+
+        // when
+        int deleted = waitlistRepository.deleteUpTo(session.getId(), 2L);
+
+        // then
+        Assertions.assertThat(deleted).isEqualTo(2);
+        Assertions.assertThat(waitlistRepository.count()).isEqualTo(2);
+        Assertions.assertThat(head(0L)).map(WaitlistEntry::getTicket).contains(3L);
+    }
+
+    @DisplayName("JUnit test for finding the head of an empty waitlist")
+    @Test
+    void givenNoWaitingUser_whenFindHead_thenReturnEmpty() {
+        // when & then
+        Assertions.assertThat(head(0L)).isEmpty();
+    }
+
+    private Optional<WaitlistEntry> head(Long after) {
+        return waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(
+                session.getId(), after);
+    }
+
+    private void enqueue(User user) {
+        sessionRepository.issueTicket(session.getId());
+        waitlistRepository.enqueue(session.getId(), user.getId());
+    }
+}
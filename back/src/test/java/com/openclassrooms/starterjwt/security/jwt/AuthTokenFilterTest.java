@@ -0,0 +1,169 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.test.util.ReflectionTestUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class AuthTokenFilterTest {
+
+    @Mock
+    private JwtUtils jwtUtils;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @InjectMocks
+    private AuthTokenFilter authTokenFilter;
+
+    private UserDetailsImpl userDetails;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.fr")
+                .firstName("test")
+                .lastName("test")
+                .admin(false)
+                .password("password")
+                .build();
+
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @DisplayName("JUnit test for doFilter with cached user details")
+    @Test
+    void givenCachedUserDetails_whenDoFilter_thenSkipUserLookup() throws Exception {
+        // given
+        BDDMockito.given(jwtUtils.parseAndValidate("token")).willReturn(new DefaultClaims().setSubject("test@test.fr"));
+        BDDMockito.given(userCache.getUserFromCache("test@test.fr")).willReturn(userDetails);
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        BDDMockito.verifyNoInteractions(userDetailsService);
+    }
+
+    @DisplayName("JUnit test for doFilter with a user details cache miss")
+    @Test
+    void givenCacheMiss_whenDoFilter_thenLoadAndCacheUserDetails() throws Exception {
+        // given
+        BDDMockito.given(jwtUtils.parseAndValidate("token")).willReturn(new DefaultClaims().setSubject("test@test.fr"));
+        BDDMockito.given(userDetailsService.loadUserByUsername("test@test.fr")).willReturn(userDetails);
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        BDDMockito.verify(userCache).putUserInCache(userDetails);
+    }
+
+    @DisplayName("JUnit test for doFilter in stateless mode")
+    @Test
+    void givenStatelessMode_whenDoFilter_thenBuildUserDetailsFromClaims() throws Exception {
+        // given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessJwt", true);
+        Claims claims = new DefaultClaims().setSubject("test@test.fr").setIssuedAt(new Date());
+        BDDMockito.given(jwtUtils.parseAndValidate("token")).willReturn(claims);
+        BDDMockito.given(jwtUtils.getUserDetailsFromClaims(claims)).willReturn(userDetails);
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        BDDMockito.verifyNoInteractions(userDetailsService, userCache);
+    }
+
+    @DisplayName("JUnit test for doFilter in stateless mode with a revoked token")
+    @Test
+    void givenRevokedToken_whenDoFilter_thenNotAuthenticated() throws Exception {
+        // given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessJwt", true);
+        Date issuedAt = new Date();
+        Claims claims = new DefaultClaims().setSubject("test@test.fr").setIssuedAt(issuedAt);
+        BDDMockito.given(jwtUtils.parseAndValidate("token")).willReturn(claims);
+        BDDMockito.given(tokenRevocationList.isRevoked("test@test.fr", issuedAt)).willReturn(true);
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @DisplayName("JUnit test for doFilter with an invalid token")
+    @Test
+    void givenInvalidToken_whenDoFilter_thenNotAuthenticatedAndChainContinues() throws Exception {
+        // given
+        BDDMockito.given(jwtUtils.parseAndValidate("token"))
+                .willThrow(new InvalidJwtException(InvalidJwtException.Reason.EXPIRED, "expired"));
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        // then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(filterChain.getRequest()).isEqualTo(request);
+        BDDMockito.verifyNoInteractions(userDetailsService, userCache);
+    }
+
+    @DisplayName("JUnit test for doFilter recording the authentication outcome")
+    @Test
+    void givenMeterRegistry_whenDoFilter_thenRecordAuthenticationOutcome() throws Exception {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(authTokenFilter, "meterRegistry", registry);
+        BDDMockito.given(jwtUtils.parseAndValidate("token")).willReturn(new DefaultClaims().setSubject("test@test.fr"));
+        BDDMockito.given(userCache.getUserFromCache("test@test.fr")).willReturn(userDetails);
+
+        // when
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        authTokenFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        assertThat(registry.get("jwt.authentication").tag("outcome", "authenticated").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.authentication").tag("outcome", "anonymous").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTokenRevocationListTest {
+
+    private final InMemoryTokenRevocationList revocationList = new InMemoryTokenRevocationList(60000);
+
+    @DisplayName("JUnit test for isRevoked method with tokens issued before and after revocation")
+    @Test
+    void givenRevokedUser_whenIsRevoked_thenOnlyOlderTokensAreRevoked() {
+        // given
+        Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+
+        // when
+        revocationList.revoke("test@test.fr");
+
+        // then
+        assertThat(revocationList.isRevoked("test@test.fr", issuedBefore)).isTrue();
+        assertThat(revocationList.isRevoked("test@test.fr", new Date(System.currentTimeMillis() + 1000))).isFalse();
+        assertThat(revocationList.isRevoked("other@test.fr", issuedBefore)).isFalse();
+    }
+}
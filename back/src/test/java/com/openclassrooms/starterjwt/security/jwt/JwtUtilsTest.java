@@ -1,20 +1,26 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 class JwtUtilsTest {
@@ -88,4 +94,158 @@ class JwtUtilsTest {
         // then
         assertThat(isValid).isFalse();
     }
+
+    @DisplayName("JUnit test for generateJwtToken method embedding user claims")
+    @Test
+    void givenAuthentication_whenGenerateJwtToken_thenClaimsRebuildUserDetails() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .id(7L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .password("password")
+                .build();
+        BDDMockito.given(authentication.getPrincipal()).willReturn(principal);
+
+        // when
+        String token = jwtUtils.generateJwtToken(authentication);
+        Claims claims = jwtUtils.parseAndValidate(token);
+        UserDetailsImpl fromClaims = jwtUtils.getUserDetailsFromClaims(claims);
+
+        // then
+        assertThat(jwtUtils.validateJwtToken(token)).isTrue();
+        assertThat(fromClaims.getId()).isEqualTo(7L);
+        assertThat(fromClaims.getUsername()).isEqualTo("yoga@studio.com");
+        assertThat(fromClaims.getFirstName()).isEqualTo("Admin");
+        assertThat(fromClaims.getLastName()).isEqualTo("Admin");
+        assertThat(fromClaims.getAdmin()).isTrue();
+        assertThat(fromClaims.getPassword()).isNull();
+    }
+
+    @DisplayName("JUnit test for generateJwtToken method in stateless mode")
+    @Test
+    void givenStatelessMode_whenGenerateJwtToken_thenUseShortExpiration() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "statelessJwt", true);
+        ReflectionTestUtils.setField(jwtUtils, "statelessJwtExpirationMs", 60000);
+        BDDMockito.given(authentication.getPrincipal()).willReturn(UserDetailsImpl.builder().id(1L).username("user").build());
+
+        // when
+        Claims claims = jwtUtils.parseAndValidate(jwtUtils.generateJwtToken(authentication));
+
+        // then
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isLessThanOrEqualTo(61000);
+    }
+
+    @DisplayName("JUnit test for parseAndValidate method with expired token")
+    @Test
+    void givenExpiredToken_whenParseAndValidate_thenThrowExpired() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        String expiredToken = Jwts.builder()
+                .setSubject("testUser")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 10000))
+                .setExpiration(new Date(System.currentTimeMillis() - 5000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        // when / then
+        assertThatThrownBy(() -> jwtUtils.parseAndValidate(expiredToken))
+                .isInstanceOf(InvalidJwtException.class)
+                .extracting("reason")
+                .isEqualTo(InvalidJwtException.Reason.EXPIRED);
+    }
+
+    @DisplayName("JUnit test for parseAndValidate method with token signed by another key")
+    @Test
+    void givenForeignSignature_whenParseAndValidate_thenThrowInvalidSignature() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        String foreignToken = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "otherSecret")
+                .compact();
+
+        // when / then
+        assertThatThrownBy(() -> jwtUtils.parseAndValidate(foreignToken))
+                .isInstanceOf(InvalidJwtException.class)
+                .extracting("reason")
+                .isEqualTo(InvalidJwtException.Reason.INVALID_SIGNATURE);
+    }
+
+    @DisplayName("JUnit test for parseAndValidate method with the verified token cache")
+    @Test
+    void givenVerifiedTokenCache_whenParseAndValidateTwice_thenVerifyOnce() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheEnabled", true);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaximumSize", 100L);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        jwtUtils.bindTo(registry);
+        String token = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        // when
+        Claims first = jwtUtils.parseAndValidate(token);
+        Claims second = jwtUtils.parseAndValidate(token);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(registry.get("jwt.verification").timer().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", JwtUtils.VERIFIED_TOKENS_CACHE).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for parseAndValidate method without the verified token cache")
+    @Test
+    void givenNoVerifiedTokenCache_whenParseAndValidateTwice_thenVerifyTwice() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        jwtUtils.bindTo(registry);
+        String token = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        // when
+        jwtUtils.parseAndValidate(token);
+        jwtUtils.parseAndValidate(token);
+
+        // then
+        assertThat(registry.get("jwt.verification").timer().count()).isEqualTo(2);
+        assertThat(registry.find("cache.gets").functionCounter()).isNull();
+    }
+
+    @DisplayName("JUnit test for validateJwtToken method counting failures by reason")
+    @Test
+    void givenExpiredToken_whenValidateJwtToken_thenCountExpiredFailure() {
+        // given
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        jwtUtils.bindTo(registry);
+        String expiredToken = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() - 5000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        // when
+        jwtUtils.validateJwtToken(expiredToken);
+
+        // then
+        assertThat(registry.get("jwt.validation.failures").tag("reason", "expired").counter().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.validation.failures").tag("reason", "malformed").counter().count()).isZero();
+    }
 }
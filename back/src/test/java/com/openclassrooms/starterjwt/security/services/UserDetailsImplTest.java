@@ -25,15 +25,28 @@ public class UserDetailsImplTest {
                 .build();
     }
 
-    @DisplayName("JUnit test for given a UserDetailsImpl object, when getAuthorities is called, then it should return an empty collection")
+    @DisplayName("JUnit test for given an admin UserDetailsImpl object, when getAuthorities is called, then it should return the admin role")
     @Test
-    void givenUserDetailsImpl_whenGetAuthorities_thenReturnEmptyCollection() {
+    void givenAdminUserDetailsImpl_whenGetAuthorities_thenReturnAdminRole() {
         // when
         Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
 
         // then
-        assertThat(authorities).isNotNull();
-        assertThat(authorities).isEmpty();
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @DisplayName("JUnit test for given a UserDetailsImpl object, when getAuthorities is called, then it should return the user role")
+    @Test
+    void givenUserDetailsImpl_whenGetAuthorities_thenReturnUserRole() {
+        // given
+        UserDetailsImpl user = UserDetailsImpl.builder().id(2L).username("user").admin(false).build();
+
+        // when
+        Collection<? extends GrantedAuthority> authorities = user.getAuthorities();
+
+        // then
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
     }
 
     @DisplayName("JUnit test for given a UserDetailsImpl object, when isAccountNonExpired is called, then it should return true")
@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.security.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,8 +12,11 @@ import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -25,6 +29,9 @@ public class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
@@ -57,6 +64,28 @@ public class UserDetailsServiceImplTest {
         Assertions.assertThat(((UserDetailsImpl) userDetails).getId()).isEqualTo(user.getId());
         assertThat(((UserDetailsImpl) userDetails).getFirstName()).isEqualTo(user.getFirstName());
         assertThat(((UserDetailsImpl) userDetails).getLastName()).isEqualTo(user.getLastName());
+        assertThat(((UserDetailsImpl) userDetails).getAdmin()).isEqualTo(user.isAdmin());
+    }
+
+    @DisplayName("JUnit test for a stateless token issued for an admin loaded by loadUserByUsername")
+    @Test
+    void givenAdminUser_whenTokenIssuedFromLoadedUser_thenClaimsKeepAdmin() {
+        // given
+        user.setAdmin(true);
+        BDDMockito.given(userRepository.findByEmail(user.getEmail())).willReturn(Optional.of(user));
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
+        ReflectionTestUtils.setField(jwtUtils, "statelessJwt", true);
+        ReflectionTestUtils.setField(jwtUtils, "statelessJwtExpirationMs", 60000);
+
+        // when
+        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(userDetails, null));
+        UserDetailsImpl fromClaims = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseAndValidate(token));
+
+        // then
+        assertThat(fromClaims.getId()).isEqualTo(user.getId());
+        assertThat(fromClaims.getAdmin()).isTrue();
     }
 
     @DisplayName("JUnit test for given an invalid username when loadUserByUsername is called then it should throw UsernameNotFoundException")
@@ -69,4 +98,26 @@ public class UserDetailsServiceImplTest {
         // when & then
         assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(invalidEmail));
     }
+
+    @DisplayName("JUnit test for updatePassword storing the rehashed password and evicting the cached user")
+    @Test
+    void givenUserDetails_whenUpdatePassword_thenStoreNewHashAndEvictCache() {
+        // given
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(user.getId())
+                .username(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .password(user.getPassword())
+                .build();
+
+        // when
+        UserDetails updated = userDetailsService.updatePassword(userDetails, "newHash");
+
+        // then
+        BDDMockito.verify(userRepository).updatePassword(user.getEmail(), "newHash");
+        BDDMockito.verify(userCache).removeUserFromCache(user.getEmail());
+        assertThat(updated.getPassword()).isEqualTo("newHash");
+        assertThat(((UserDetailsImpl) updated).getId()).isEqualTo(user.getId());
+    }
 }
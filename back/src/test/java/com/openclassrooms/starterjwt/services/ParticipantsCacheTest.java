@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ParticipantsCacheTest {
+    private static final String ROLE = "com.openclassrooms.starterjwt.models.Session.users";
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private javax.persistence.Cache jpaCache;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private ParticipantsCache participantsCache;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.given(entityManagerFactory.getCache()).willReturn(jpaCache);
+        BDDMockito.given(jpaCache.unwrap(Cache.class)).willReturn(cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("JUnit test for evict outside a transaction")
+    @Test
+    void givenNoTransaction_whenEvict_thenEvictParticipantsOnce() {
+        // when
+        participantsCache.evict(1L);
+
+        // then
+        verify(cache, times(1)).evictCollectionData(ROLE, 1L);
+    }
+
+    @DisplayName("JUnit test for evict in a transaction evicting again once it completes")
+    @Test
+    void givenTransaction_whenEvict_thenEvictParticipantsAgainAfterCompletion() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        participantsCache.evict(1L);
+        verify(cache, times(1)).evictCollectionData(ROLE, 1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // then
+        verify(cache, times(2)).evictCollectionData(ROLE, 1L);
+    }
+
+    @DisplayName("JUnit test for evictSeats evicting the session itself, again once the transaction completes")
+    @Test
+    void givenTransaction_whenEvictSeats_thenEvictSessionAgainAfterCompletion() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        participantsCache.evictSeats(1L);
+        verify(cache, times(1)).evictEntityData(Session.class, 1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // then
+        verify(cache, times(2)).evictEntityData(Session.class, 1L);
+        verify(cache, times(0)).evictCollectionData(ROLE, 1L);
+    }
+}
@@ -0,0 +1,126 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleServiceTest {
+    private static final Pageable PAGE = PageRequest.of(0, SessionService.MAX_PAGE_SIZE);
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private TeacherService teacherService;
+
+    private ScheduleService scheduleService;
+
+    private Session first;
+
+    private Session second;
+
+    private Session third;
+
+    @BeforeEach
+    void setUp() {
+        scheduleService = new ScheduleService(sessionService, teacherService, 2, 10);
+        first = Session.builder().id(1L).name("first").date(new Date(1000)).build();
+        second = Session.builder().id(2L).name("second").date(new Date(2000)).build();
+        third = Session.builder().id(3L).name("third").date(new Date(3000)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduleService.destroy();
+    }
+
+    @DisplayName("JUnit test for findSessions fetching the next page only when it is requested")
+    @Test
+    void givenTwoPages_whenFindSessions_thenFetchPagesOnDemand() {
+        // given
+        given(sessionService.findPage(isNull(), eq(SessionService.MAX_PAGE_SIZE), isNull(), isNull(), isNull()))
+                .willReturn(new SliceImpl<>(Arrays.asList(first, second), PAGE, true));
+        given(sessionService.findPage(any(SessionCursor.class), eq(SessionService.MAX_PAGE_SIZE), isNull(), isNull(), isNull()))
+                .willReturn(new SliceImpl<>(Collections.singletonList(third), PAGE, false));
+
+        // when & then
+        StepVerifier.create(scheduleService.findSessions(null, null, null, names()), 0)
+                .thenRequest(1)
+                .expectNext("first")
+                .then(() -> verify(sessionService, never())
+                        .findPage(any(SessionCursor.class), eq(SessionService.MAX_PAGE_SIZE), isNull(), isNull(), isNull()))
+                .thenRequest(2)
+                .expectNext("second", "third")
+                .verifyComplete();
+    }
+
+    @DisplayName("JUnit test for findSessions with no matching session")
+    @Test
+    void givenNoSession_whenFindSessions_thenComplete() {
+        // given
+        given(sessionService.findPage(isNull(), eq(SessionService.MAX_PAGE_SIZE), isNull(), isNull(), eq(3L)))
+                .willReturn(new SliceImpl<>(Collections.emptyList(), PAGE, false));
+
+        // when & then
+        StepVerifier.create(scheduleService.findSessions(null, null, 3L, names()))
+                .verifyComplete();
+    }
+
+    @DisplayName("JUnit test for findSessions running the queries off the subscribing thread")
+    @Test
+    void givenSessions_whenFindSessions_thenQueryOnReadScheduler() {
+        // given
+        given(sessionService.findPage(isNull(), eq(SessionService.MAX_PAGE_SIZE), isNull(), isNull(), isNull()))
+                .willReturn(new SliceImpl<>(Arrays.asList(first, second), PAGE, false));
+
+        // when & then
+        StepVerifier.create(scheduleService.findSessions(null, null, null,
+                        sessions -> Collections.singletonList(Thread.currentThread().getName())))
+                .assertNext(thread -> assertThat(thread).startsWith("reactive-read"))
+                .verifyComplete();
+    }
+
+    @DisplayName("JUnit test for findTeachers")
+    @Test
+    void givenTeachers_whenFindTeachers_thenEmitEachTeacher() {
+        // given
+        Teacher teacher = Teacher.builder().id(1L).firstName("first").lastName("last").build();
+        given(teacherService.findAll()).willReturn(Collections.singletonList(teacher));
+
+        // when & then
+        StepVerifier.create(scheduleService.findTeachers(Function.identity()))
+                .expectNext(teacher)
+                .verifyComplete();
+    }
+
+    private static Function<List<Session>, List<String>> names() {
+        return sessions -> sessions.stream().map(Session::getName).collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,19 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSummary;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,15 +22,29 @@ import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -35,6 +57,18 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ParticipationRepository participationRepository;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private ParticipantsCache participantsCache;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -73,9 +107,45 @@ class SessionServiceTest {
         verify(sessionRepository, times(1)).save(any(Session.class));
     }
 
+    @DisplayName("JUnit test for create sessions in bulk flushing and clearing every batch")
+    @Test
+    void givenSeveralBatchesOfSessions_whenCreateAll_thenFlushEveryBatchAndRecountBookedSessions() {
+        // given
+        List<Session> sessions = LongStream.range(0, 2 * Session.ID_ALLOCATION_SIZE + 1)
+                .mapToObj(i -> Session.builder().name("Session " + i).build())
+                .collect(Collectors.toList());
+        sessions.get(Session.ID_ALLOCATION_SIZE).setUsers(Collections.singletonList(user));
+        BDDMockito.given(sessionRepository.save(any(Session.class))).willAnswer(invocation -> {
+            Session saved = invocation.getArgument(0);
+            saved.setId((long) sessions.indexOf(saved) + 1);
+            return saved;
+        });
+
+        // when
+        List<Long> ids = sessionService.createAll(sessions);
+
+        // then
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(1, sessions.size())
+                .boxed().collect(Collectors.toList()));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        verify(sessionRepository, times(1)).recountSeatsIn(Collections.singletonList((long) Session.ID_ALLOCATION_SIZE + 1));
+    }
+
+    @DisplayName("JUnit test for create sessions in bulk with more users than the capacity of one of them")
+    @Test
+    void givenMoreUsersThanCapacity_whenCreateAll_thenThrowBadRequestExceptionBeforeSaving() {
+        // given
+        Session full = Session.builder().name("Full").capacity(0).users(Collections.singletonList(user)).build();
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.createAll(Arrays.asList(session, full)));
+        verify(sessionRepository, times(0)).save(any(Session.class));
+    }
+
     @DisplayName("JUnit test for delete session operation")
     @Test
-    void givenSessionId_whenDelete_thenNothing() {
+    void givenSessionId_whenDelete_thenEvictSession() {
         // given
         Long sessionId = 1L;
         BDDMockito.willDoNothing().given(sessionRepository).deleteById(sessionId);
@@ -85,6 +155,8 @@ class SessionServiceTest {
 
         // then
         verify(sessionRepository, times(1)).deleteById(sessionId);
+        verify(participantsCache, times(1)).evict(sessionId);
+        verify(participantsCache, times(1)).evictSeats(sessionId);
     }
 
     @DisplayName("JUnit test for find all sessions operation")
@@ -104,6 +176,109 @@ class SessionServiceTest {
         assertThat(sessionList.size()).isEqualTo(1);
     }
 
+    @DisplayName("JUnit test for findAllSummaries operation")
+    @Test
+    void whenFindAllSummaries_thenReturnProjections() {
+        // given
+        List<SessionSummary> summaries = Collections.singletonList(
+                new SessionSummary(1L, "Test Session", new Date(), 1L, LocalDateTime.now()));
+        BDDMockito.given(sessionRepository.findAllSummaries()).willReturn(summaries);
+
+        // when & then
+        assertThat(sessionService.findAllSummaries()).isSameAs(summaries);
+    }
+
+    @DisplayName("JUnit test for find first page of sessions operation")
+    @Test
+    void givenNoCursor_whenFindPage_thenReturnFirstPageWithDefaultSize() {
+        // given
+        Slice<Session> slice = new SliceImpl<>(Collections.singletonList(session));
+        BDDMockito.given(sessionRepository.findFirstPage(isNull(), isNull(), isNull(), any(Pageable.class))).willReturn(slice);
+
+        // when
+        Slice<Session> page = sessionService.findPage(null, null, null, null, null);
+
+        // then
+        assertThat(page.getContent()).hasSize(1);
+        verify(sessionRepository).findFirstPage(isNull(), isNull(), isNull(), eq(Pageable.ofSize(SessionService.DEFAULT_PAGE_SIZE)));
+    }
+
+    @DisplayName("JUnit test for find page of sessions after a cursor operation")
+    @Test
+    void givenCursor_whenFindPage_thenSeekAfterCursorWithCappedSize() {
+        // given
+        Date date = new Date();
+        SessionCursor cursor = new SessionCursor(date, 5L);
+        Slice<Session> slice = new SliceImpl<>(Collections.singletonList(session));
+        BDDMockito.given(sessionRepository.findPageAfter(eq(date), eq(5L), isNull(), isNull(), eq(2L), any(Pageable.class))).willReturn(slice);
+
+        // when
+        Slice<Session> page = sessionService.findPage(cursor, 1000, null, null, 2L);
+
+        // then
+        assertThat(page.getContent()).hasSize(1);
+        verify(sessionRepository).findPageAfter(eq(date), eq(5L), isNull(), isNull(), eq(2L), eq(Pageable.ofSize(SessionService.MAX_PAGE_SIZE)));
+    }
+
+    @DisplayName("JUnit test for find page of sessions with invalid limit")
+    @Test
+    void givenInvalidLimit_whenFindPage_thenThrowBadRequestException() {
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.findPage(null, 0, null, null, null));
+    }
+
+    @DisplayName("JUnit test for find participant ids operation")
+    @Test
+    void givenSessionIds_whenFindParticipantIds_thenReturnIdsGroupedBySession() {
+        // given
+        List<SessionParticipant> participants = new ArrayList<>();
+        participants.add(new SessionParticipant(1L, 10L));
+        participants.add(new SessionParticipant(1L, 11L));
+        participants.add(new SessionParticipant(2L, 10L));
+        List<Long> sessionIds = new ArrayList<>();
+        sessionIds.add(1L);
+        sessionIds.add(2L);
+        BDDMockito.given(participationRepository.findParticipantIds(sessionIds)).willReturn(participants);
+
+        // when
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessionIds);
+
+        // then
+        assertThat(participantIds.get(1L)).containsExactly(10L, 11L);
+        assertThat(participantIds.get(2L)).containsExactly(10L);
+    }
+
+    @DisplayName("JUnit test for find participant ids operation over more sessions than one query takes")
+    @Test
+    void givenMoreSessionIdsThanChunk_whenFindParticipantIds_thenQueryPerChunk() {
+        // given
+        long lastSessionId = SessionService.PARTICIPANT_IDS_CHUNK_SIZE + 1;
+        List<Long> sessionIds = LongStream.rangeClosed(1, lastSessionId).boxed().collect(Collectors.toList());
+        BDDMockito.given(participationRepository.findParticipantIds(sessionIds.subList(0, SessionService.PARTICIPANT_IDS_CHUNK_SIZE)))
+                .willReturn(Collections.singletonList(new SessionParticipant(1L, 10L)));
+        BDDMockito.given(participationRepository.findParticipantIds(Collections.singletonList(lastSessionId)))
+                .willReturn(Collections.singletonList(new SessionParticipant(lastSessionId, 11L)));
+
+        // when
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessionIds);
+
+        // then
+        assertThat(participantIds.get(1L)).containsExactly(10L);
+        assertThat(participantIds.get(lastSessionId)).containsExactly(11L);
+        verify(participationRepository, times(2)).findParticipantIds(any());
+    }
+
+    @DisplayName("JUnit test for find participant ids operation without session")
+    @Test
+    void givenNoSessionIds_whenFindParticipantIds_thenNoQuery() {
+        // when
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(Collections.emptyList());
+
+        // then
+        assertThat(participantIds).isEmpty();
+        verify(participationRepository, times(0)).findParticipantIds(any());
+    }
+
     @DisplayName("JUnit test for get session by id operation")
     @Test
     void givenSessionId_whenGetById_thenReturnSession() {
@@ -121,61 +296,214 @@ class SessionServiceTest {
     @Test
     void givenSessionObject_whenUpdate_thenReturnUpdatedSession() {
         // given
-        BDDMockito.given(sessionRepository.save(any(Session.class))).willReturn(session);
+        session.setVersion(3L);
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
 
         // when
-        Session updatedSession = sessionService.update(1L, session);
+        Session updatedSession = sessionService.update(1L, 3L, current -> current.setName("Renamed Session"), null);
 
         // then
-        assertThat(updatedSession).isNotNull();
-        verify(sessionRepository, times(1)).save(any(Session.class));
+        assertThat(updatedSession.getName()).isEqualTo("Renamed Session");
+        verify(sessionRepository, times(1)).flush();
+        verify(sessionRepository, times(0)).recountSeats(anyLong());
+        verify(waitlistRepository, times(0)).leave(anyLong(), any());
+    }
+
+    @DisplayName("JUnit test for update session read at an older version")
+    @Test
+    void givenStaleVersion_whenUpdate_thenThrowConflictException() {
+        // given
+        session.setVersion(4L);
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+
+        // when & then
+        assertThrows(ConflictException.class,
+                () -> sessionService.update(1L, 3L, current -> current.setName("Renamed Session"), null));
+        assertThat(session.getName()).isEqualTo("Test Session");
+        verify(sessionRepository, times(0)).flush();
+    }
+
+    @DisplayName("JUnit test for update session modified concurrently before the flush")
+    @Test
+    void givenConcurrentUpdate_whenUpdate_thenThrowConflictException() {
+        // given
+        session.setVersion(3L);
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+        BDDMockito.willThrow(new ObjectOptimisticLockingFailureException(Session.class, 1L)).given(sessionRepository).flush();
+
+        // when & then
+        assertThrows(ConflictException.class,
+                () -> sessionService.update(1L, null, current -> current.setName("Renamed Session"), null));
+    }
+
+    @DisplayName("JUnit test for update session operation - session not found")
+    @Test
+    void givenUnknownSession_whenUpdate_thenThrowNotFoundException() {
+        // given
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when & then
+        assertThrows(NotFoundException.class, () -> sessionService.update(1L, null, current -> { }, null));
+    }
+
+    @DisplayName("JUnit test for update session with more participants than seats")
+    @Test
+    void givenMoreUsersThanCapacity_whenUpdate_thenThrowBadRequestException() {
+        // given
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+        List<User> users = Arrays.asList(user, User.builder()
+                .id(2L)
+                .firstName("other_firstname")
+                .lastName("other_lastname")
+                .email("other@test.com")
+                .password("other_password")
+                .admin(false)
+                .build());
+
+        // when & then
+        assertThrows(BadRequestException.class,
+                () -> sessionService.update(1L, null, current -> current.setCapacity(1), users));
+        verify(sessionRepository, times(0)).flush();
+    }
+
+    @DisplayName("JUnit test for update session lowering the capacity below the seats taken")
+    @Test
+    void givenCapacityBelowSeatsTaken_whenUpdate_thenThrowBadRequestException() {
+        // given
+        session.setSeatsTaken(2);
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.update(1L, null, current -> current.setCapacity(1), null));
+        verify(sessionRepository, times(0)).flush();
+    }
+
+    @DisplayName("JUnit test for update session promoting waiting users reading the new version")
+    @Test
+    void givenWaitingUser_whenUpdateCapacity_thenPromoteAndRefresh() {
+        // given
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+        BDDMockito.given(waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 3L, 2L)), Optional.empty());
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.addParticipant(1L, 2L)).willReturn(1);
+
+        // when
+        sessionService.update(1L, null, current -> current.setCapacity(2), null);
+
+        // then
+        verify(participationRepository, times(1)).addParticipant(1L, 2L);
+        verify(entityManager, times(1)).refresh(session);
+    }
+
+    @DisplayName("JUnit test for getLastModified operation")
+    @Test
+    void givenSessionId_whenGetLastModified_thenReturnUpdatedAt() {
+        // given
+        LocalDateTime updatedAt = LocalDateTime.now();
+        BDDMockito.given(sessionRepository.findUpdatedAtById(1L)).willReturn(Optional.of(updatedAt));
+
+        // when
+        LocalDateTime lastModified = sessionService.getLastModified(1L);
+
+        // then
+        assertThat(lastModified).isEqualTo(updatedAt);
+    }
+
+    @DisplayName("JUnit test for getVersion operation")
+    @Test
+    void whenGetVersion_thenReturnCountAndLastUpdate() {
+        // given
+        EntityVersion version = new EntityVersion(2L, LocalDateTime.now());
+        BDDMockito.given(sessionRepository.findVersion()).willReturn(version);
+
+        // when & then
+        assertThat(sessionService.getVersion()).isSameAs(version);
     }
 
     @DisplayName("JUnit test for participate in session operation")
     @Test
     void givenSessionAndUserId_whenParticipate_thenUserAddedToSession() {
         // given
-        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
-        BDDMockito.given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.existsBySessionIdAndUserId(1L, 1L)).willReturn(false);
+        BDDMockito.given(participationRepository.addParticipant(1L, 1L)).willReturn(1);
 
         // when
         sessionService.participate(1L, 1L);
 
         // then
-        verify(sessionRepository, times(1)).save(session);
+        verify(participationRepository, times(1)).addParticipant(1L, 1L);
+        verify(participantsCache, times(1)).evict(1L);
+        verify(participantsCache, times(1)).evictSeats(1L);
+        verify(sessionRepository, times(0)).existsById(anyLong());
+        verify(sessionRepository, times(0)).save(any(Session.class));
+    }
+
+    @DisplayName("JUnit test for participate in session when every seat is taken")
+    @Test
+    void givenFullSession_whenParticipate_thenThrowConflictException() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(0);
+        BDDMockito.given(sessionRepository.existsById(1L)).willReturn(true);
+
+        // when & then
+        assertThrows(ConflictException.class, () -> sessionService.participate(1L, 1L));
+        verify(participationRepository, times(0)).addParticipant(anyLong(), anyLong());
+        verify(participantsCache, times(0)).evictSeats(anyLong());
     }
 
     @DisplayName("JUnit test for participate in session when user already participates")
     @Test
     void givenSessionAndUserId_whenParticipateAndUserAlreadyParticipates_thenThrowException() {
         // given
-        session.getUsers().add(user);
-        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
-        BDDMockito.given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.existsBySessionIdAndUserId(1L, 1L)).willReturn(true);
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.participate(1L, 1L));
+        verify(participationRepository, times(0)).addParticipant(anyLong(), anyLong());
+    }
+
+    @DisplayName("JUnit test for participate in session when a concurrent join of the same user committed first")
+    @Test
+    void givenConcurrentJoin_whenParticipateAndInsertSkipped_thenThrowException() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.existsBySessionIdAndUserId(1L, 1L)).willReturn(false);
+        BDDMockito.given(participationRepository.addParticipant(1L, 1L)).willReturn(0);
 
         // when & then
         assertThrows(BadRequestException.class, () -> sessionService.participate(1L, 1L));
+        verify(participantsCache, times(0)).evict(anyLong());
     }
 
     @DisplayName("JUnit test for no longer participate in session operation")
     @Test
     void givenSessionAndUserId_whenNoLongerParticipate_thenUserRemovedFromSession() {
         // given
-        session.getUsers().add(user);
-        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+        BDDMockito.given(sessionRepository.releaseSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.removeParticipant(1L, 1L)).willReturn(1);
 
         // when
         sessionService.noLongerParticipate(1L, 1L);
 
         // then
-        verify(sessionRepository, times(1)).save(session);
+        verify(participationRepository, times(1)).removeParticipant(1L, 1L);
+        verify(participantsCache, times(1)).evict(1L);
+        verify(sessionRepository, times(0)).save(any(Session.class));
     }
 
     @DisplayName("JUnit test for no longer participate in session when user not participates")
     @Test
     void givenSessionAndUserId_whenNoLongerParticipateAndUserNotParticipates_thenThrowException() {
         // given
-        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+        BDDMockito.given(sessionRepository.releaseSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.removeParticipant(1L, 2L)).willReturn(0);
 
         // when & then
         assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(1L, 2L));
@@ -185,8 +513,9 @@ class SessionServiceTest {
     @Test
     void givenInvalidSessionId_whenParticipate_thenThrowNotFoundException() {
         // given
-        BDDMockito.given(sessionRepository.findById(anyLong())).willReturn(Optional.empty());
-        BDDMockito.given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(0);
+        BDDMockito.given(sessionRepository.existsById(anyLong())).willReturn(false);
 
         // when & then
         assertThrows(NotFoundException.class, () -> sessionService.participate(1L, 1L));
@@ -196,23 +525,183 @@ class SessionServiceTest {
     @Test
     void givenInvalidUserId_whenParticipate_thenThrowNotFoundException() {
         // given
-        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
-        BDDMockito.given(userRepository.findById(anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(userRepository.existsById(anyLong())).willReturn(false);
 
         // when & then
         assertThrows(NotFoundException.class, () -> sessionService.participate(1L, 1L));
+        verify(sessionRepository, times(0)).takeSeat(anyLong(), any(LocalDateTime.class));
     }
 
     @DisplayName("JUnit test for no longer participate in session with invalid session id")
     @Test
     void givenInvalidSessionId_whenNoLongerParticipate_thenThrowNotFoundException() {
         // given
-        BDDMockito.given(sessionRepository.findById(anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(sessionRepository.releaseSeat(eq(1L), any(LocalDateTime.class))).willReturn(0);
 
         // when & then
         assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(1L, 1L));
     }
 
+    @DisplayName("JUnit test for no longer participate in session handing the seat to the waitlist")
+    @Test
+    void givenWaitingUser_whenNoLongerParticipate_thenPromoteHeadOfWaitlist() {
+        // given
+        BDDMockito.given(sessionRepository.releaseSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.removeParticipant(1L, 1L)).willReturn(1);
+        BDDMockito.given(waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 3L, 2L)));
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.addParticipant(1L, 2L)).willReturn(1);
+
+        // when
+        sessionService.noLongerParticipate(1L, 1L);
+
+        // then
+        verify(waitlistRepository, times(1)).deleteUpTo(1L, 3L);
+        verify(participationRepository, times(1)).addParticipant(1L, 2L);
+    }
+
+    @DisplayName("JUnit test for no longer participate in session skipping a waiting user who already participates")
+    @Test
+    void givenWaitingParticipant_whenNoLongerParticipate_thenPromoteNextWaitingUser() {
+        // given
+        BDDMockito.given(sessionRepository.releaseSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.removeParticipant(1L, 1L)).willReturn(1);
+        BDDMockito.given(waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 3L, 2L)), Optional.of(new WaitlistEntry(1L, 4L, 3L)));
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.addParticipant(1L, 2L)).willReturn(0);
+        BDDMockito.given(participationRepository.addParticipant(1L, 3L)).willReturn(1);
+
+        // when
+        sessionService.noLongerParticipate(1L, 1L);
+
+        // then
+        verify(waitlistRepository, times(1)).deleteUpTo(1L, 4L);
+        verify(participationRepository, times(1)).addParticipant(1L, 3L);
+        verify(sessionRepository, times(2)).releaseSeat(eq(1L), any(LocalDateTime.class));
+    }
+
+    @DisplayName("JUnit test for update session removing new participants from the waitlist")
+    @Test
+    void givenWaitingUserAddedAsParticipant_whenUpdate_thenLeaveWaitlist() {
+        // given
+        BDDMockito.given(sessionRepository.findById(1L)).willReturn(Optional.of(session));
+
+        // when
+        sessionService.update(1L, null, current -> { }, Collections.singletonList(user));
+
+        // then
+        assertThat(session.getUsers()).containsExactly(user);
+        verify(sessionRepository, times(1)).recountSeats(1L);
+        verify(waitlistRepository, times(1)).leave(1L, Collections.singletonList(1L));
+        verify(waitlistRepository, times(1)).findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L);
+        verify(entityManager, times(0)).refresh(any());
+    }
+
+    @DisplayName("JUnit test for join waitlist when a seat is free")
+    @Test
+    void givenFreeSeat_whenJoinWaitlist_thenParticipateDirectly() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.issueTicket(1L)).willReturn(0);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.addParticipant(1L, 1L)).willReturn(1);
+
+        // when
+        long position = sessionService.joinWaitlist(1L, 1L);
+
+        // then
+        assertThat(position).isZero();
+        verify(participationRepository, times(1)).addParticipant(1L, 1L);
+        verify(waitlistRepository, times(0)).enqueue(anyLong(), anyLong());
+    }
+
+    @DisplayName("JUnit test for join waitlist when every seat is taken")
+    @Test
+    void givenFullSession_whenJoinWaitlist_thenEnqueueAndReturnPosition() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.issueTicket(1L)).willReturn(1);
+        BDDMockito.given(waitlistRepository.findBySessionIdAndUserId(1L, 1L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 5L, 1L)));
+        BDDMockito.given(waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 2L, 2L)));
+        BDDMockito.given(waitlistRepository.countLeftBetween(1L, 2L, 5L)).willReturn(1L);
+
+        // when
+        long position = sessionService.joinWaitlist(1L, 1L);
+
+        // then
+        assertThat(position).isEqualTo(3L);
+        verify(waitlistRepository, times(1)).enqueue(1L, 1L);
+        verify(sessionRepository, times(0)).takeSeat(anyLong(), any(LocalDateTime.class));
+    }
+
+    @DisplayName("JUnit test for join waitlist when user already waits")
+    @Test
+    void givenWaitingUser_whenJoinWaitlist_thenThrowBadRequestException() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.issueTicket(1L)).willReturn(1);
+        BDDMockito.given(waitlistRepository.existsBySessionIdAndUserId(1L, 1L)).willReturn(true);
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.joinWaitlist(1L, 1L));
+        verify(waitlistRepository, times(0)).enqueue(anyLong(), anyLong());
+    }
+
+    @DisplayName("JUnit test for join waitlist with invalid session id")
+    @Test
+    void givenInvalidSessionId_whenJoinWaitlist_thenThrowNotFoundException() {
+        // given
+        BDDMockito.given(userRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(sessionRepository.issueTicket(1L)).willReturn(0);
+        BDDMockito.given(sessionRepository.takeSeat(eq(1L), any(LocalDateTime.class))).willReturn(0);
+        BDDMockito.given(sessionRepository.existsById(1L)).willReturn(false);
+
+        // when & then
+        assertThrows(NotFoundException.class, () -> sessionService.joinWaitlist(1L, 1L));
+    }
+
+    @DisplayName("JUnit test for leave waitlist operation dropping the tickets left at the head")
+    @Test
+    void givenWaitingUser_whenLeaveWaitlist_thenLeaveTicket() {
+        // given
+        BDDMockito.given(sessionRepository.lockById(1L)).willReturn(Optional.of(1L));
+        BDDMockito.given(waitlistRepository.leave(1L, Collections.singletonList(1L))).willReturn(1);
+        BDDMockito.given(waitlistRepository.findFirstBySessionIdAndTicketGreaterThanAndUserIdNotNullOrderBySessionIdAscTicketAsc(1L, 0L))
+                .willReturn(Optional.of(new WaitlistEntry(1L, 4L, 2L)));
+
+        // when
+        sessionService.leaveWaitlist(1L, 1L);
+
+        // then
+        verify(waitlistRepository, times(1)).leave(1L, Collections.singletonList(1L));
+        verify(waitlistRepository, times(1)).deleteUpTo(1L, 3L);
+    }
+
+    @DisplayName("JUnit test for leave waitlist when user does not wait")
+    @Test
+    void givenUserNotWaiting_whenLeaveWaitlist_thenThrowBadRequestException() {
+        // given
+        BDDMockito.given(sessionRepository.lockById(1L)).willReturn(Optional.of(1L));
+        BDDMockito.given(waitlistRepository.leave(1L, Collections.singletonList(1L))).willReturn(0);
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> sessionService.leaveWaitlist(1L, 1L));
+    }
+
+    @DisplayName("JUnit test for get waitlist position when user does not wait")
+    @Test
+    void givenUserNotWaiting_whenGetWaitlistPosition_thenThrowNotFoundException() {
+        // given
+        BDDMockito.given(waitlistRepository.findBySessionIdAndUserId(1L, 1L)).willReturn(Optional.empty());
+
+        // when & then
+        assertThrows(NotFoundException.class, () -> sessionService.getWaitlistPosition(1L, 1L));
+    }
+
     @DisplayName("JUnit test for create session with invalid session data")
     @Test
     void givenInvalidSessionObject_whenCreate_thenThrowBadRequestException() {
@@ -227,9 +716,9 @@ class SessionServiceTest {
     @Test
     void givenInvalidSessionData_whenParticipate_thenThrowNumberFormatException() {
         // given
-        session.getUsers().add(user);
-        BDDMockito.given(sessionRepository.findById(anyLong())).willReturn(Optional.of(session));
-        BDDMockito.given(userRepository.findById(anyLong())).willReturn(Optional.of(user));
+        BDDMockito.given(userRepository.existsById(anyLong())).willReturn(true);
+        BDDMockito.given(sessionRepository.takeSeat(anyLong(), any(LocalDateTime.class))).willReturn(1);
+        BDDMockito.given(participationRepository.existsBySessionIdAndUserId(anyLong(), anyLong())).willReturn(true);
 
         // when & then
         assertThrows(BadRequestException.class, () -> sessionService.participate(1L, 1L));
@@ -239,9 +728,31 @@ class SessionServiceTest {
     @Test
     void givenInvalidSessionData_whenNoLongerParticipate_thenThrowNumberFormatException() {
         // given
-        BDDMockito.given(sessionRepository.findById(anyLong())).willThrow(new NumberFormatException());
+        BDDMockito.given(sessionRepository.releaseSeat(anyLong(), any(LocalDateTime.class))).willThrow(new NumberFormatException());
 
         // when & then
         assertThrows(NumberFormatException.class, () -> sessionService.noLongerParticipate(1L, 1L));
     }
+
+    @DisplayName("JUnit test for forEachChunk operation")
+    @Test
+    void givenMoreSessionsThanFetchSize_whenForEachChunk_thenConsumeInChunksAndDetach() {
+        // given
+        int total = SessionRepository.EXPORT_FETCH_SIZE + 1;
+        BDDMockito.given(sessionRepository.streamAll()).willReturn(
+                LongStream.rangeClosed(1, total).mapToObj(id -> Session.builder().id(id).build()));
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+
+        // when
+        sessionService.forEachChunk(sessions -> {
+            chunkSizes.add(sessions.size());
+            ids.addAll(sessions.stream().map(Session::getId).collect(Collectors.toList()));
+        });
+
+        // then
+        assertThat(chunkSizes).containsExactly(SessionRepository.EXPORT_FETCH_SIZE, 1);
+        assertThat(ids).hasSize(total).isSorted();
+        verify(entityManager, times(1)).clear();
+    }
 }
@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = TeacherService.class)
+@EnableCaching
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=teachers,teacher",
+        "spring.cache.caffeine.spec=maximumSize=1000,expireAfterWrite=1h,recordStats"
+})
+class TeacherServiceCacheTest {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private TeacherRepository teacherRepository;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        teacher = Teacher.builder()
+                .id(1L)
+                .firstName("test_first_name")
+                .lastName("test_last_name")
+                .build();
+    }
+
+    @DisplayName("JUnit test for findById operation served from the cache")
+    @Test
+    void givenCachedTeacher_whenFindByIdTwice_thenRepositoryIsQueriedOnce() {
+        // given
+        BDDMockito.given(teacherRepository.findById(1L)).willReturn(Optional.of(teacher));
+        Cache<Object, Object> nativeCache = ((CaffeineCache) cacheManager.getCache(TeacherService.TEACHER_CACHE)).getNativeCache();
+        CacheStats before = nativeCache.stats();
+
+        // when
+        teacherService.findById(1L);
+        Teacher result = teacherService.findById(1L);
+
+        // then
+        assertThat(result).isEqualTo(teacher);
+        verify(teacherRepository, times(1)).findById(1L);
+        CacheStats stats = nativeCache.stats().minus(before);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for findById operation with unknown teacher is not cached")
+    @Test
+    void givenUnknownTeacher_whenFindByIdTwice_thenRepositoryIsQueriedTwice() {
+        // given
+        BDDMockito.given(teacherRepository.findById(2L)).willReturn(Optional.empty());
+
+        // when
+        teacherService.findById(2L);
+        teacherService.findById(2L);
+
+        // then
+        verify(teacherRepository, times(2)).findById(2L);
+    }
+
+    @DisplayName("JUnit test for findAll operation served from the cache until cleared")
+    @Test
+    void givenCachedTeachers_whenClearCaches_thenFindAllReloads() {
+        // given
+        BDDMockito.given(teacherRepository.findAll()).willReturn(Collections.singletonList(teacher));
+        BDDMockito.given(teacherRepository.findById(1L)).willReturn(Optional.of(teacher));
+        teacherService.findAll();
+        teacherService.findAll();
+        teacherService.findById(1L);
+
+        // when
+        cacheManager.getCache(TeacherService.TEACHERS_CACHE).clear();
+        cacheManager.getCache(TeacherService.TEACHER_CACHE).clear();
+        teacherService.findAll();
+        teacherService.findById(1L);
+
+        // then
+        verify(teacherRepository, times(2)).findAll();
+        verify(teacherRepository, times(2)).findById(1L);
+    }
+}
@@ -1,6 +1,8 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.EntityVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,10 +15,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 
 @ExtendWith(MockitoExtension.class)
@@ -87,4 +94,81 @@ class TeacherServiceTest {
         // then
         assertThat(result).isNull();
     }
+
+    @DisplayName("JUnit test for getReference operation when teacher exists")
+    @Test
+    void givenExistingTeacherId_whenGetReference_thenReturnReference() {
+        // given
+        BDDMockito.given(teacherRepository.existsById(1L)).willReturn(true);
+        BDDMockito.given(teacherRepository.getById(1L)).willReturn(teacher);
+
+        // when
+        Teacher result = teacherService.getReference(1L);
+
+        // then
+        assertThat(result).isSameAs(teacher);
+    }
+
+    @DisplayName("JUnit test for getReference operation when teacher does not exist")
+    @Test
+    void givenUnknownTeacherId_whenGetReference_thenThrowBadRequestException() {
+        // given
+        BDDMockito.given(teacherRepository.existsById(anyLong())).willReturn(false);
+
+        // when & then
+        assertThrows(BadRequestException.class, () -> teacherService.getReference(2L));
+    }
+
+    @DisplayName("JUnit test for getReferences operation checking every teacher with one query")
+    @Test
+    void givenExistingTeacherIds_whenGetReferences_thenReturnReferencesById() {
+        // given
+        Teacher other = Teacher.builder().id(2L).lastName("Other").firstName("Teacher").build();
+        List<Long> ids = Arrays.asList(1L, 2L, 1L);
+        BDDMockito.given(teacherRepository.findExistingIds(ids)).willReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        BDDMockito.given(teacherRepository.getById(1L)).willReturn(teacher);
+        BDDMockito.given(teacherRepository.getById(2L)).willReturn(other);
+
+        // when
+        Map<Long, Teacher> result = teacherService.getReferences(ids);
+
+        // then
+        assertThat(result).containsEntry(1L, teacher).containsEntry(2L, other).hasSize(2);
+        BDDMockito.verify(teacherRepository, BDDMockito.never()).existsById(anyLong());
+    }
+
+    @DisplayName("JUnit test for getReferences operation when a teacher does not exist")
+    @Test
+    void givenUnknownTeacherIds_whenGetReferences_thenThrowBadRequestException() {
+        // given
+        List<Long> ids = Arrays.asList(1L, 3L);
+        BDDMockito.given(teacherRepository.findExistingIds(ids)).willReturn(Collections.singleton(1L));
+
+        // when
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> teacherService.getReferences(ids));
+
+        // then
+        assertThat(exception.getMessage()).isEqualTo("Unknown teacher ids: [3]");
+    }
+
+    @DisplayName("JUnit test for getLastModified operation when the teacher does not exist")
+    @Test
+    void givenUnknownTeacherId_whenGetLastModified_thenReturnNull() {
+        // given
+        BDDMockito.given(teacherRepository.findUpdatedAtById(2L)).willReturn(Optional.empty());
+
+        // when & then
+        assertThat(teacherService.getLastModified(2L)).isNull();
+    }
+
+    @DisplayName("JUnit test for getVersion operation")
+    @Test
+    void whenGetVersion_thenReturnCountAndLastUpdate() {
+        // given
+        EntityVersion version = new EntityVersion(1L, teacher.getUpdatedAt());
+        BDDMockito.given(teacherRepository.findVersion()).willReturn(version);
+
+        // when & then
+        assertThat(teacherService.getVersion()).isSameAs(version);
+    }
 }
\ No newline at end of file
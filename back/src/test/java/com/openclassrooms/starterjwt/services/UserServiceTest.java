@@ -1,7 +1,9 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,8 +13,13 @@ import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserCache;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +28,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private UserService userService;
 
@@ -72,4 +85,80 @@ class UserServiceTest {
         // then - verify the output
         BDDMockito.verify(userRepository, BDDMockito.times(1)).deleteById(userId);
     }
+
+    @DisplayName("JUnit test for delete user evicting cached user details and revoking tokens")
+    @Test
+    public void givenExistingUser_whenDeleteUser_thenEvictUserDetails() {
+        // given - precondition or setup
+        BDDMockito.given(userRepository.findById(1L)).willReturn(Optional.of(user));
+
+        // when - action or the behavior that we are going test
+        userService.delete(1L);
+
+        // then - verify the output
+        BDDMockito.verify(userCache).removeUserFromCache(user.getEmail());
+        BDDMockito.verify(tokenRevocationList).revoke(user.getEmail());
+        BDDMockito.verify(userRepository).deleteById(1L);
+    }
+
+    @DisplayName("JUnit test for get user references operation")
+    @Test
+    public void givenKnownUserIds_whenGetReferences_thenReturnReferencesWithOneQuery() {
+        // given
+        List<Long> ids = Arrays.asList(1L, 2L);
+        User other = new User();
+        other.setId(2L);
+        BDDMockito.given(userRepository.findExistingIds(ids)).willReturn(new HashSet<>(ids));
+        BDDMockito.given(userRepository.getById(1L)).willReturn(user);
+        BDDMockito.given(userRepository.getById(2L)).willReturn(other);
+
+        // when
+        List<User> references = userService.getReferences(ids);
+
+        // then
+        Assertions.assertEquals(Arrays.asList(user, other), references);
+        BDDMockito.verify(userRepository, BDDMockito.never()).findById(BDDMockito.anyLong());
+    }
+
+    @DisplayName("JUnit test for get user references operation with a repeated id")
+    @Test
+    public void givenRepeatedUserId_whenGetReferences_thenReturnOneReferencePerUser() {
+        // given
+        User other = new User();
+        other.setId(2L);
+        BDDMockito.given(userRepository.findExistingIds(Arrays.asList(1L, 2L))).willReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        BDDMockito.given(userRepository.getById(1L)).willReturn(user);
+        BDDMockito.given(userRepository.getById(2L)).willReturn(other);
+
+        // when
+        List<User> references = userService.getReferences(Arrays.asList(1L, 2L, 1L));
+
+        // then
+        Assertions.assertEquals(Arrays.asList(user, other), references);
+    }
+
+    @DisplayName("JUnit test for get user references operation with unknown id")
+    @Test
+    public void givenUnknownUserId_whenGetReferences_thenThrowBadRequestException() {
+        // given
+        List<Long> ids = Arrays.asList(1L, 3L);
+        BDDMockito.given(userRepository.findExistingIds(ids)).willReturn(Collections.singleton(1L));
+
+        // when
+        BadRequestException exception = Assertions.assertThrows(BadRequestException.class, () -> userService.getReferences(ids));
+
+        // then
+        Assertions.assertEquals("Unknown user ids: [3]", exception.getMessage());
+    }
+
+    @DisplayName("JUnit test for get user references operation without id")
+    @Test
+    public void givenNoUserId_whenGetReferences_thenNoQuery() {
+        // when
+        List<User> references = userService.getReferences(Collections.emptyList());
+
+        // then
+        Assertions.assertTrue(references.isEmpty());
+        BDDMockito.verifyNoInteractions(userRepository);
+    }
 }
\ No newline at end of file
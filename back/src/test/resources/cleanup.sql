@@ -1,4 +1,5 @@
 -- Delete all rows from all tables
+DELETE FROM WAITLIST;
 DELETE FROM PARTICIPATE;
 DELETE FROM SESSIONS;
 DELETE FROM TEACHERS;
@@ -7,7 +8,6 @@ DELETE FROM USERS;
 
 -- Reset the auto-incrementing primary key value
 ALTER TABLE PARTICIPATE AUTO_INCREMENT = 1;
-ALTER TABLE SESSIONS AUTO_INCREMENT = 1;
 ALTER TABLE TEACHERS AUTO_INCREMENT = 1;
 ALTER TABLE USERS AUTO_INCREMENT = 1;
 -- Add more tables as needed
\ No newline at end of file